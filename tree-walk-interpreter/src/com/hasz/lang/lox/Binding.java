@@ -0,0 +1,15 @@
+package com.hasz.lang.lox;
+
+class Binding {
+  enum Kind {
+    GLOBAL, LOCAL, NUMBER, CELL, CAPTURE
+  }
+
+  Kind kind;
+  final int index;
+
+  Binding(Kind kind, int index) {
+    this.kind = kind;
+    this.index = index;
+  }
+}
@@ -0,0 +1,35 @@
+package com.hasz.lang.lox;
+
+import java.time.Duration;
+
+public final class Budget {
+  private static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+  final long maxSteps;
+  final long maxNanos;
+
+  private Budget(long maxSteps, long maxNanos) {
+    this.maxSteps = maxSteps;
+    this.maxNanos = maxNanos;
+  }
+
+  public static Budget unlimited() {
+    return UNLIMITED;
+  }
+
+  public static Budget of(long maxSteps, Duration maxTime) {
+    if (maxSteps <= 0 || maxTime.isNegative() || maxTime.isZero()) {
+      throw new IllegalArgumentException("Budgets must be positive.");
+    }
+
+    return new Budget(maxSteps, maxTime.toNanos());
+  }
+
+  public static Budget steps(long maxSteps) {
+    return of(maxSteps, Duration.ofNanos(Long.MAX_VALUE));
+  }
+
+  public static Budget time(Duration maxTime) {
+    return of(Long.MAX_VALUE, maxTime);
+  }
+}
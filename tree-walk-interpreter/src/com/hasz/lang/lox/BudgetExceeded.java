@@ -0,0 +1,7 @@
+package com.hasz.lang.lox;
+
+class BudgetExceeded extends RuntimeException {
+  BudgetExceeded(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,771 @@
+package com.hasz.lang.lox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hasz.lang.lox.OpCode.*;
+
+class BytecodeCompiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+  static final int MAX_SLOTS = 256;
+  static final int MAX_JUMP = 0xffff;
+
+  private FunctionState current = null;
+  private int line = 0;
+
+  private enum FunctionType {
+    SCRIPT, FUNCTION, METHOD, INITIALIZER
+  }
+
+  private static class Local {
+    final String name;
+    final int depth;
+    final int slot;
+    boolean isCaptured = false;
+
+    Local(String name, int depth, int slot) {
+      this.name = name;
+      this.depth = depth;
+      this.slot = slot;
+    }
+  }
+
+  private static class Upvalue {
+    final boolean isLocal;
+    final int index;
+
+    Upvalue(boolean isLocal, int index) {
+      this.isLocal = isLocal;
+      this.index = index;
+    }
+  }
+
+  private static class FunctionState {
+    final FunctionState enclosing;
+    final FunctionType type;
+    final Chunk chunk = new Chunk();
+    final List<Local> locals = new ArrayList<>();
+    final List<Upvalue> upvalues = new ArrayList<>();
+    int scopeDepth = 0;
+    int slots = 1;
+    int stackDepth = 0;
+    int maxStack = 0;
+
+    FunctionState(FunctionState enclosing, FunctionType type) {
+      this.enclosing = enclosing;
+      this.type = type;
+    }
+  }
+
+  VmFunction compile(List<Stmt> statements) {
+    current = new FunctionState(null, FunctionType.SCRIPT);
+    compileValue(statements);
+    emit(RETURN);
+
+    return finish(null, 0);
+  }
+
+  private void compileValue(List<Stmt> statements) {
+    if (statements.isEmpty()) {
+      emit(NIL);
+
+      return;
+    }
+
+    compileAll(statements.subList(0, statements.size() - 1));
+    compileValue(statements.get(statements.size() - 1));
+  }
+
+  private void compileValue(Stmt stmt) {
+    if (stmt instanceof Stmt.Expression) {
+      compile(((Stmt.Expression) stmt).expression);
+    } else if (stmt instanceof Stmt.Var) {
+      compile(stmt);
+      emitVariable(((Stmt.Var) stmt).name, false);
+    } else if (stmt instanceof Stmt.Function) {
+      compile(stmt);
+      emitVariable(((Stmt.Function) stmt).name, false);
+    } else if (stmt instanceof Stmt.Block) {
+      compileValue(((Stmt.Block) stmt).statements);
+    } else if (stmt instanceof Stmt.ScopedBlock) {
+      beginScope();
+      compileValue(((Stmt.ScopedBlock) stmt).statements);
+      endScope();
+    } else if (stmt instanceof Stmt.If) {
+      Stmt.If branch = (Stmt.If) stmt;
+
+      compile(branch.condition);
+
+      int elseJump = emitJump(JUMP_IF_FALSE);
+
+      emit(POP);
+      compileValue(branch.thenBranch);
+
+      int endJump = emitJump(JUMP);
+
+      adjustStack(-1);
+      patchJump(elseJump);
+      emit(POP);
+
+      if (branch.elseBranch != null) {
+        compileValue(branch.elseBranch);
+      } else {
+        emit(NIL);
+      }
+
+      patchJump(endJump);
+    } else {
+      compile(stmt);
+      emit(NIL);
+    }
+  }
+
+  private VmFunction finish(String name, int arity) {
+    FunctionState state = current;
+
+    current = state.enclosing;
+
+    return new VmFunction(name, arity, state.type == FunctionType.INITIALIZER, state.chunk, state.upvalues.size(), state.slots, state.maxStack);
+  }
+
+  private void compile(Stmt stmt) {
+    stmt.accept(this);
+  }
+
+  private void compile(Expr expr) {
+    expr.accept(this);
+  }
+
+  private void compileAll(List<Stmt> statements) {
+    for (Stmt statement : statements) {
+      compile(statement);
+    }
+  }
+
+  @Override
+  public Void visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
+    beginScope();
+    compileAll(stmt.statements);
+    endScope();
+
+    return null;
+  }
+
+  @Override
+  public Void visitBlockStmt(Stmt.Block stmt) {
+    compileAll(stmt.statements);
+
+    return null;
+  }
+
+  @Override
+  public Void visitClassStmt(Stmt.Class stmt) {
+    line = stmt.name.line;
+
+    int variable = declare(stmt.name);
+
+    emit(CLASS, constant(stmt.name.lexeme));
+    define(variable, stmt.name);
+
+    if (stmt.superclass != null) {
+      beginScope();
+      compile(stmt.superclass);
+      define(declare(new Token(TokenType.SUPER, "super", null, line)), stmt.name);
+      emitVariable(stmt.name, false);
+      emitVariable(new Token(TokenType.SUPER, "super", null, line), false);
+      emit(INHERIT);
+    } else {
+      emitVariable(stmt.name, false);
+    }
+
+    for (Stmt.Function method : stmt.methods) {
+      FunctionType type = method.name.lexeme.equals("init") ? FunctionType.INITIALIZER : FunctionType.METHOD;
+
+      function(method, type);
+      emit(METHOD, constant(method.name.lexeme));
+    }
+
+    emit(POP);
+
+    if (stmt.superclass != null) {
+      endScope();
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitExpressionStmt(Stmt.Expression stmt) {
+    compile(stmt.expression);
+    emit(POP);
+
+    return null;
+  }
+
+  @Override
+  public Void visitPrintStmt(Stmt.Print stmt) {
+    compile(stmt.expression);
+    emit(PRINT);
+
+    return null;
+  }
+
+  @Override
+  public Void visitReturnStmt(Stmt.Return stmt) {
+    line = stmt.keyword.line;
+
+    if (current.type == FunctionType.INITIALIZER) {
+      emit(GET_LOCAL, 0);
+    } else if (stmt.value instanceof Expr.Call && ((Expr.Call) stmt.value).isTailCall) {
+      Expr.Call call = (Expr.Call) stmt.value;
+
+      arguments(call);
+      emit(TAIL_CALL, call.arguments.size());
+      adjustStack(-call.arguments.size());
+    } else if (stmt.value != null) {
+      compile(stmt.value);
+    } else {
+      emit(NIL);
+    }
+
+    emit(RETURN);
+
+    return null;
+  }
+
+  @Override
+  public Void visitFunctionStmt(Stmt.Function stmt) {
+    int variable = declare(stmt.name);
+
+    function(stmt, FunctionType.FUNCTION);
+    define(variable, stmt.name);
+
+    return null;
+  }
+
+  private void function(Stmt.Function stmt, FunctionType type) {
+    line = stmt.name.line;
+    current = new FunctionState(current, type);
+    current.scopeDepth = 1;
+
+    if (type != FunctionType.FUNCTION) {
+      current.locals.add(new Local("this", 1, 0));
+    }
+
+    for (Token param : stmt.params) {
+      declare(param);
+    }
+
+    compileValue(stmt.body);
+
+    emit(RETURN);
+
+    List<Upvalue> upvalues = current.upvalues;
+    VmFunction function = finish(stmt.name.lexeme, stmt.params.size());
+
+    line = stmt.name.line;
+    emit(CLOSURE);
+    emitShort(constant(function));
+
+    for (Upvalue upvalue : upvalues) {
+      emitByte(upvalue.isLocal ? 1 : 0);
+      emitByte(upvalue.index);
+    }
+  }
+
+  @Override
+  public Void visitIfStmt(Stmt.If stmt) {
+    compile(stmt.condition);
+
+    int elseJump = emitJump(JUMP_IF_FALSE);
+
+    emit(POP);
+    compile(stmt.thenBranch);
+
+    int endJump = emitJump(JUMP);
+
+    patchJump(elseJump);
+    emit(POP);
+
+    if (stmt.elseBranch != null) {
+      compile(stmt.elseBranch);
+    }
+
+    patchJump(endJump);
+
+    return null;
+  }
+
+  @Override
+  public Void visitVarStmt(Stmt.Var stmt) {
+    if (stmt.initializer != null) {
+      compile(stmt.initializer);
+    } else {
+      emit(NIL);
+    }
+
+    define(declare(stmt.name), stmt.name);
+
+    return null;
+  }
+
+  @Override
+  public Void visitWhileStmt(Stmt.While stmt) {
+    int loopStart = current.chunk.count();
+
+    compile(stmt.condition);
+
+    int exitJump = emitJump(JUMP_IF_FALSE);
+
+    emit(POP);
+    compile(stmt.body);
+    emitLoop(loopStart);
+    patchJump(exitJump);
+    emit(POP);
+
+    return null;
+  }
+
+  @Override
+  public Void visitForStmt(Stmt.For stmt) {
+    if (stmt.initial != null) {
+      compile(stmt.initial);
+    }
+
+    int loopStart = current.chunk.count();
+    int exitJump = -1;
+
+    if (stmt.condition != null) {
+      compile(stmt.condition);
+      exitJump = emitJump(JUMP_IF_FALSE);
+      emit(POP);
+    }
+
+    compile(stmt.body);
+
+    if (stmt.increment != null) {
+      compile(stmt.increment);
+      emit(POP);
+    }
+
+    emitLoop(loopStart);
+
+    if (exitJump != -1) {
+      patchJump(exitJump);
+      emit(POP);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitAssignExpr(Expr.Assign expr) {
+    compile(expr.value);
+    emitVariable(expr.name, true);
+
+    return null;
+  }
+
+  @Override
+  public Void visitBinaryExpr(Expr.Binary expr) {
+    compile(expr.left);
+
+    if (expr.operator.type == TokenType.COMMA) {
+      emit(POP);
+      compile(expr.right);
+
+      return null;
+    }
+
+    compile(expr.right);
+    line = expr.operator.line;
+
+    switch (expr.operator.type) {
+      case GREATER: emit(GREATER); break;
+      case GREATER_EQUAL: emit(GREATER_EQUAL); break;
+      case LESS: emit(LESS); break;
+      case LESS_EQUAL: emit(LESS_EQUAL); break;
+      case PLUS: emit(ADD); break;
+      case MINUS: emit(SUBTRACT); break;
+      case STAR: emit(MULTIPLY); break;
+      case SLASH: emit(DIVIDE); break;
+      case BANG_EQUAL: emit(NOT_EQUAL); break;
+      case EQUAL_EQUAL: emit(EQUAL); break;
+      default:
+        emit(POP);
+        emit(POP);
+        emit(NIL);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitCallExpr(Expr.Call expr) {
+    arguments(expr);
+    emit(CALL, expr.arguments.size());
+    adjustStack(-expr.arguments.size());
+
+    return null;
+  }
+
+  private void arguments(Expr.Call expr) {
+    compile(expr.callee);
+
+    for (Expr argument : expr.arguments) {
+      compile(argument);
+    }
+
+    line = expr.paren.line;
+
+    if (expr.arguments.size() > 255) {
+      throw new RuntimeError(expr.paren, "Cannot have more than 255 arguments.");
+    }
+  }
+
+  @Override
+  public Void visitGetExpr(Expr.Get expr) {
+    compile(expr.object);
+    line = expr.name.line;
+    emit(GET_PROPERTY, constant(expr.name));
+
+    return null;
+  }
+
+  @Override
+  public Void visitSetExpr(Expr.Set expr) {
+    compile(expr.object);
+    compile(expr.value);
+    line = expr.name.line;
+    emit(SET_PROPERTY, constant(expr.name));
+
+    return null;
+  }
+
+  @Override
+  public Void visitGroupingExpr(Expr.Grouping expr) {
+    compile(expr.expression);
+
+    return null;
+  }
+
+  @Override
+  public Void visitThisExpr(Expr.This expr) {
+    emitVariable(expr.keyword, false);
+
+    return null;
+  }
+
+  @Override
+  public Void visitSuperExpr(Expr.Super expr) {
+    emitVariable(new Token(TokenType.THIS, "this", null, expr.keyword.line), false);
+    emitVariable(expr.keyword, false);
+    line = expr.method.line;
+    emit(GET_SUPER, constant(expr.method));
+
+    return null;
+  }
+
+  @Override
+  public Void visitLiteralExpr(Expr.Literal expr) {
+    if (expr.value == null) {
+      emit(NIL);
+    } else if (expr.value == Boolean.TRUE) {
+      emit(TRUE);
+    } else if (expr.value == Boolean.FALSE) {
+      emit(FALSE);
+    } else {
+      emit(CONSTANT, constant(expr.value));
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitUnaryExpr(Expr.Unary expr) {
+    compile(expr.right);
+    line = expr.operator.line;
+
+    switch (expr.operator.type) {
+      case MINUS: emit(NEGATE); break;
+      case BANG: emit(NOT); break;
+      default:
+        emit(POP);
+        emit(NIL);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitConditionalExpr(Expr.Conditional expr) {
+    compile(expr.condition);
+
+    int elseJump = emitJump(JUMP_IF_FALSE);
+
+    emit(POP);
+    compile(expr.ifBranch);
+
+    int endJump = emitJump(JUMP);
+
+    patchJump(elseJump);
+    emit(POP);
+    compile(expr.elseBranch);
+    patchJump(endJump);
+
+    return null;
+  }
+
+  @Override
+  public Void visitVariableExpr(Expr.Variable expr) {
+    emitVariable(expr.name, false);
+
+    return null;
+  }
+
+  @Override
+  public Void visitLogicalExpr(Expr.Logical expr) {
+    compile(expr.left);
+
+    if (expr.operator.type == TokenType.OR) {
+      int elseJump = emitJump(JUMP_IF_FALSE);
+      int endJump = emitJump(JUMP);
+
+      patchJump(elseJump);
+      emit(POP);
+      compile(expr.right);
+      patchJump(endJump);
+    } else {
+      int endJump = emitJump(JUMP_IF_FALSE);
+
+      emit(POP);
+      compile(expr.right);
+      patchJump(endJump);
+    }
+
+    return null;
+  }
+
+  private void beginScope() {
+    current.scopeDepth++;
+  }
+
+  private void endScope() {
+    List<Local> locals = current.locals;
+    int firstCaptured = -1;
+    int first = -1;
+    int last = -1;
+
+    current.scopeDepth--;
+
+    while (!locals.isEmpty() && locals.get(locals.size() - 1).depth > current.scopeDepth) {
+      Local local = locals.remove(locals.size() - 1);
+
+      if (local.isCaptured) {
+        firstCaptured = firstCaptured == -1 ? local.slot : Math.min(firstCaptured, local.slot);
+      }
+
+      first = local.slot;
+      last = last == -1 ? local.slot : last;
+    }
+
+    if (firstCaptured != -1) {
+      emit(CLOSE_UPVALUES, firstCaptured);
+    }
+
+    if (first != -1) {
+      emit(CLEAR_LOCALS, first);
+      emitByte(last - first + 1);
+    }
+  }
+
+  private int declare(Token name) {
+    if (current.scopeDepth == 0) {
+      return -1;
+    }
+
+    for (int i = current.locals.size() - 1; i >= 0; i--) {
+      Local local = current.locals.get(i);
+
+      if (local.depth < current.scopeDepth) {
+        break;
+      }
+
+      if (local.name.equals(name.lexeme)) {
+        return local.slot;
+      }
+    }
+
+    if (current.slots == MAX_SLOTS) {
+      throw new RuntimeError(name, "Too many local variables in function.");
+    }
+
+    current.locals.add(new Local(name.lexeme, current.scopeDepth, current.slots));
+
+    return current.slots++;
+  }
+
+  private void define(int slot, Token name) {
+    line = name.line;
+
+    if (slot == -1) {
+      emit(DEFINE_GLOBAL, constant(name.lexeme));
+    } else {
+      emit(SET_LOCAL, slot);
+      emit(POP);
+    }
+  }
+
+  private void emitVariable(Token name, boolean assign) {
+    line = name.line;
+
+    int slot = resolveLocal(current, name.lexeme);
+
+    if (slot != -1) {
+      emit(assign ? SET_LOCAL : GET_LOCAL, slot);
+
+      return;
+    }
+
+    int upvalue = resolveUpvalue(current, name.lexeme);
+
+    if (upvalue != -1) {
+      emit(assign ? SET_UPVALUE : GET_UPVALUE, upvalue);
+
+      return;
+    }
+
+    emit(assign ? SET_GLOBAL : GET_GLOBAL, constant(name));
+  }
+
+  private static Local findLocal(FunctionState state, String name) {
+    for (int i = state.locals.size() - 1; i >= 0; i--) {
+      Local local = state.locals.get(i);
+
+      if (local.name.equals(name)) {
+        return local;
+      }
+    }
+
+    return null;
+  }
+
+  private static int resolveLocal(FunctionState state, String name) {
+    Local local = findLocal(state, name);
+
+    return local == null ? -1 : local.slot;
+  }
+
+  private static int resolveUpvalue(FunctionState state, String name) {
+    if (state.enclosing == null) {
+      return -1;
+    }
+
+    Local local = findLocal(state.enclosing, name);
+
+    if (local != null) {
+      local.isCaptured = true;
+
+      return addUpvalue(state, true, local.slot);
+    }
+
+    int upvalue = resolveUpvalue(state.enclosing, name);
+
+    if (upvalue != -1) {
+      return addUpvalue(state, false, upvalue);
+    }
+
+    return -1;
+  }
+
+  private static int addUpvalue(FunctionState state, boolean isLocal, int index) {
+    for (int i = 0; i < state.upvalues.size(); i++) {
+      Upvalue upvalue = state.upvalues.get(i);
+
+      if (upvalue.isLocal == isLocal && upvalue.index == index) {
+        return i;
+      }
+    }
+
+    state.upvalues.add(new Upvalue(isLocal, index));
+
+    return state.upvalues.size() - 1;
+  }
+
+  private int constant(Object value) {
+    int index = current.chunk.addConstant(value);
+
+    if (index > 0xffff) {
+      throw new RuntimeError(new Token(TokenType.NIL, "", null, line), "Too many constants in one chunk.");
+    }
+
+    return index;
+  }
+
+  private void emit(byte op) {
+    emitByte(op);
+    adjustStack(OpCode.stackEffect(op));
+  }
+
+  private void emit(byte op, int operand) {
+    emit(op);
+
+    switch (op) {
+      case GET_LOCAL:
+      case SET_LOCAL:
+      case GET_UPVALUE:
+      case SET_UPVALUE:
+      case CALL:
+      case TAIL_CALL:
+      case CLOSE_UPVALUES:
+      case CLEAR_LOCALS:
+        emitByte(operand);
+        break;
+      default:
+        emitShort(operand);
+    }
+  }
+
+  private void emitByte(int b) {
+    current.chunk.write(b, line);
+  }
+
+  private void emitShort(int value) {
+    emitByte((value >> 8) & 0xff);
+    emitByte(value & 0xff);
+  }
+
+  private void adjustStack(int effect) {
+    current.stackDepth += effect;
+    current.maxStack = Math.max(current.maxStack, current.stackDepth);
+  }
+
+  private int emitJump(byte op) {
+    emit(op);
+    emitShort(0xffff);
+
+    return current.chunk.count() - 2;
+  }
+
+  private void patchJump(int offset) {
+    int jump = current.chunk.count() - offset - 2;
+
+    if (jump > MAX_JUMP) {
+      throw new RuntimeError(new Token(TokenType.NIL, "", null, line), "Too much code to jump over.");
+    }
+
+    current.chunk.patch(offset, (jump >> 8) & 0xff);
+    current.chunk.patch(offset + 1, jump & 0xff);
+  }
+
+  private void emitLoop(int loopStart) {
+    emit(LOOP);
+
+    int offset = current.chunk.count() - loopStart + 2;
+
+    if (offset > MAX_JUMP) {
+      throw new RuntimeError(new Token(TokenType.NIL, "", null, line), "Loop body too large.");
+    }
+
+    emitShort(offset);
+  }
+}
@@ -0,0 +1,9 @@
+package com.hasz.lang.lox;
+
+class Cell {
+  Object value;
+
+  Cell(Object value) {
+    this.value = value;
+  }
+}
@@ -0,0 +1,58 @@
+package com.hasz.lang.lox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class Chunk {
+  private byte[] code = new byte[64];
+  private int[] lines = new int[64];
+  private int count = 0;
+  private final List<Object> constants = new ArrayList<>();
+  private final Map<Object, Integer> constantIndexes = new HashMap<>();
+
+  int count() {
+    return count;
+  }
+
+  void write(int b, int line) {
+    if (count == code.length) {
+      code = Arrays.copyOf(code, count * 2);
+      lines = Arrays.copyOf(lines, count * 2);
+    }
+
+    code[count] = (byte) b;
+    lines[count] = line;
+    count++;
+  }
+
+  void patch(int offset, int b) {
+    code[offset] = (byte) b;
+  }
+
+  int addConstant(Object value) {
+    Integer index = constantIndexes.get(value);
+
+    if (index == null) {
+      index = constants.size();
+      constants.add(value);
+      constantIndexes.put(value, index);
+    }
+
+    return index;
+  }
+
+  byte[] code() {
+    return Arrays.copyOf(code, count);
+  }
+
+  int[] lines() {
+    return Arrays.copyOf(lines, count);
+  }
+
+  Object[] constants() {
+    return constants.toArray();
+  }
+}
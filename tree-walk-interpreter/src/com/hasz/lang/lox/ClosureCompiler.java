@@ -0,0 +1,774 @@
+package com.hasz.lang.lox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ClosureCompiler implements Expr.Visitor<ClosureCompiler.Code>, Stmt.Visitor<ClosureCompiler.Code> {
+  private static final ClosureCompiler compiler = new ClosureCompiler();
+
+  interface Code {
+    Object run(Interpreter interpreter, Frame frame);
+  }
+
+  private interface Store {
+    void store(Interpreter interpreter, Frame frame, Object value);
+  }
+
+  private interface NumberCode {
+    double run(Interpreter interpreter, Frame frame);
+  }
+
+  private ClosureCompiler() { }
+
+  static Code compile(Stmt stmt) {
+    return compiler.code(stmt);
+  }
+
+  static Code body(Stmt.Function declaration) {
+    Code body = declaration.compiled;
+
+    if (body == null) {
+      body = compiler.sequence(declaration.body);
+      declaration.compiled = body;
+    }
+
+    return body;
+  }
+
+  static Code compileLoop(Stmt.While stmt) {
+    return compiler.loop(compiler.code(stmt.condition), compiler.code(stmt.body), null);
+  }
+
+  static Code compileLoop(Stmt.For stmt) {
+    Code condition = stmt.condition != null ? compiler.code(stmt.condition) : (interpreter, frame) -> true;
+    Code increment = stmt.increment != null ? compiler.code(stmt.increment) : null;
+
+    return compiler.loop(condition, compiler.code(stmt.body), increment);
+  }
+
+  private Code code(Stmt stmt) {
+    return stmt.accept(this);
+  }
+
+  private Code code(Expr expr) {
+    return expr.accept(this);
+  }
+
+  private Code sequence(List<Stmt> statements) {
+    Code[] codes = new Code[statements.size()];
+
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = code(statements.get(i));
+    }
+
+    switch (codes.length) {
+      case 0:
+        return (interpreter, frame) -> null;
+      case 1:
+        return codes[0];
+      default:
+        return (interpreter, frame) -> {
+          Object value = null;
+
+          for (Code code : codes) {
+            value = code.run(interpreter, frame);
+          }
+
+          return value;
+        };
+    }
+  }
+
+  private Code[] compileAll(List<Expr> exprs) {
+    Code[] codes = new Code[exprs.size()];
+
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = code(exprs.get(i));
+    }
+
+    return codes;
+  }
+
+  private static Object[] evaluateAll(Code[] codes, Interpreter interpreter, Frame frame) {
+    if (codes.length == 0) {
+      return LoxCallable.NO_ARGUMENTS;
+    }
+
+    Object[] values = new Object[codes.length];
+
+    for (int i = 0; i < codes.length; i++) {
+      values[i] = codes[i].run(interpreter, frame);
+    }
+
+    return values;
+  }
+
+  @Override
+  public Code visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
+    Code body = sequence(stmt.statements);
+    int first = stmt.firstSlot;
+    int count = stmt.slotCount;
+
+    if (count == 0) {
+      return body;
+    }
+
+    return (interpreter, frame) -> {
+      Object value = body.run(interpreter, frame);
+
+      frame.clear(first, count);
+
+      return value;
+    };
+  }
+
+  @Override
+  public Code visitBlockStmt(Stmt.Block stmt) {
+    return sequence(stmt.statements);
+  }
+
+  @Override
+  public Code visitClassStmt(Stmt.Class stmt) {
+    Code superclassCode = stmt.superclass != null ? code(stmt.superclass) : null;
+    String name = stmt.name.lexeme;
+    Store define = definition(stmt.name, stmt.binding);
+    Store assign = assignment(stmt.name, stmt.binding);
+
+    return (interpreter, frame) -> {
+      Map<String, LoxFunction> methods = new HashMap<>();
+      Object superclass = null;
+
+      if (superclassCode != null) {
+        superclass = superclassCode.run(interpreter, frame);
+
+        if (!(superclass instanceof LoxClass)) {
+          throw new RuntimeError(stmt.superclass.name, "Superclass must be a class.");
+        }
+      }
+
+      define.store(interpreter, frame, null);
+
+      if (superclass != null) {
+        frame.define(stmt.superBinding, superclass);
+      }
+
+      for (Stmt.Function method : stmt.methods) {
+        methods.put(method.name.lexeme, new LoxFunction(method, frame.capture(method.captures), frame.linkage, method.name.lexeme.equals("init")));
+      }
+
+      if (superclass != null) {
+        frame.clear(stmt.superBinding.index, 1);
+      }
+
+      assign.store(interpreter, frame, new LoxClass(name, (LoxClass) superclass, methods));
+
+      return null;
+    };
+  }
+
+  @Override
+  public Code visitExpressionStmt(Stmt.Expression stmt) {
+    return code(stmt.expression);
+  }
+
+  @Override
+  public Code visitPrintStmt(Stmt.Print stmt) {
+    Code expression = code(stmt.expression);
+
+    return (interpreter, frame) -> {
+      interpreter.print(expression.run(interpreter, frame));
+
+      return null;
+    };
+  }
+
+  @Override
+  public Code visitReturnStmt(Stmt.Return stmt) {
+    if (stmt.value instanceof Expr.Call && ((Expr.Call) stmt.value).isTailCall) {
+      Expr.Call call = (Expr.Call) stmt.value;
+      Code callee = code(call.callee);
+      Code[] arguments = compileAll(call.arguments);
+
+      return (interpreter, frame) -> {
+        Object value = callee.run(interpreter, frame);
+        Object[] values = evaluateAll(arguments, interpreter, frame);
+        LoxCallable function = interpreter.checkCallable(call, value, frame);
+
+        interpreter.step();
+
+        if (function instanceof LoxFunction) {
+          throw new TailCall((LoxFunction) function, values);
+        }
+
+        throw new Return(interpreter.call(call.paren, function, values));
+      };
+    }
+
+    if (stmt.value == null) {
+      return (interpreter, frame) -> {
+        throw new Return(null);
+      };
+    }
+
+    Code value = code(stmt.value);
+
+    return (interpreter, frame) -> {
+      throw new Return(value.run(interpreter, frame));
+    };
+  }
+
+  @Override
+  public Code visitFunctionStmt(Stmt.Function stmt) {
+    Store define = definition(stmt.name, stmt.binding);
+    Store assign = assignment(stmt.name, stmt.binding);
+
+    return (interpreter, frame) -> {
+      define.store(interpreter, frame, null);
+
+      LoxFunction function = new LoxFunction(stmt, frame.capture(stmt.captures), frame.linkage, false);
+
+      assign.store(interpreter, frame, function);
+
+      return function;
+    };
+  }
+
+  @Override
+  public Code visitIfStmt(Stmt.If stmt) {
+    Code condition = code(stmt.condition);
+    Code thenBranch = code(stmt.thenBranch);
+
+    if (stmt.elseBranch == null) {
+      return (interpreter, frame) ->
+        interpreter.isTruthy(condition.run(interpreter, frame)) ? thenBranch.run(interpreter, frame) : null;
+    }
+
+    Code elseBranch = code(stmt.elseBranch);
+
+    return (interpreter, frame) -> interpreter.isTruthy(condition.run(interpreter, frame))
+      ? thenBranch.run(interpreter, frame)
+      : elseBranch.run(interpreter, frame);
+  }
+
+  @Override
+  public Code visitVarStmt(Stmt.Var stmt) {
+    if (stmt.binding.kind == Binding.Kind.NUMBER) {
+      return numberStore(stmt.binding, stmt.initializer);
+    }
+
+    Store define = definition(stmt.name, stmt.binding);
+
+    if (stmt.initializer == null) {
+      return (interpreter, frame) -> {
+        define.store(interpreter, frame, null);
+
+        return null;
+      };
+    }
+
+    Code initializer = code(stmt.initializer);
+
+    return (interpreter, frame) -> {
+      Object value = initializer.run(interpreter, frame);
+
+      define.store(interpreter, frame, value);
+
+      return value;
+    };
+  }
+
+  @Override
+  public Code visitWhileStmt(Stmt.While stmt) {
+    return loop(code(stmt.condition), code(stmt.body), null);
+  }
+
+  @Override
+  public Code visitForStmt(Stmt.For stmt) {
+    Code condition = stmt.condition != null ? code(stmt.condition) : (interpreter, frame) -> true;
+    Code increment = stmt.increment != null ? code(stmt.increment) : null;
+    Code loop = loop(condition, code(stmt.body), increment);
+
+    if (stmt.initial == null) {
+      return loop;
+    }
+
+    Code initial = code(stmt.initial);
+
+    return (interpreter, frame) -> {
+      initial.run(interpreter, frame);
+
+      return loop.run(interpreter, frame);
+    };
+  }
+
+  private Code loop(Code condition, Code body, Code increment) {
+    if (increment == null) {
+      return (interpreter, frame) -> {
+        while (interpreter.isTruthy(condition.run(interpreter, frame))) {
+          interpreter.step();
+          body.run(interpreter, frame);
+        }
+
+        return null;
+      };
+    }
+
+    return (interpreter, frame) -> {
+      while (interpreter.isTruthy(condition.run(interpreter, frame))) {
+        interpreter.step();
+        body.run(interpreter, frame);
+        increment.run(interpreter, frame);
+      }
+
+      return null;
+    };
+  }
+
+  @Override
+  public Code visitAssignExpr(Expr.Assign expr) {
+    if (expr.binding.kind == Binding.Kind.NUMBER) {
+      return numberStore(expr.binding, expr.value);
+    }
+
+    Code value = code(expr.value);
+    Store assign = assignment(expr.name, expr.binding);
+
+    return (interpreter, frame) -> {
+      Object result = value.run(interpreter, frame);
+
+      assign.store(interpreter, frame, result);
+
+      return result;
+    };
+  }
+
+  @Override
+  public Code visitBinaryExpr(Expr.Binary expr) {
+    if (expr.operands == StaticType.NUMBER) {
+      return numeric(expr);
+    }
+
+    if (expr.operands == StaticType.STRING) {
+      Code left = code(expr.left);
+      Code right = code(expr.right);
+
+      return (interpreter, frame) -> (String) left.run(interpreter, frame) + (String) right.run(interpreter, frame);
+    }
+
+    Code left = code(expr.left);
+    Code right = code(expr.right);
+    Token operator = expr.operator;
+
+    switch (operator.type) {
+      case COMMA:
+        return (interpreter, frame) -> {
+          left.run(interpreter, frame);
+
+          return right.run(interpreter, frame);
+        };
+      case GREATER:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a > (double) b;
+        };
+      case GREATER_EQUAL:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a >= (double) b;
+        };
+      case LESS:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a < (double) b;
+        };
+      case LESS_EQUAL:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a <= (double) b;
+        };
+      case MINUS:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a - (double) b;
+        };
+      case SLASH:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a / (double) b;
+        };
+      case STAR:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperands(operator, a, b);
+
+          return (double) a * (double) b;
+        };
+      case PLUS:
+        return (interpreter, frame) -> {
+          Object a = left.run(interpreter, frame);
+          Object b = right.run(interpreter, frame);
+
+          if (a instanceof Double && b instanceof Double) {
+            return (double) a + (double) b;
+          }
+
+          if (a instanceof String && b instanceof String) {
+            return (String) a + b;
+          }
+
+          Interpreter.checkConcatOperands(operator, a, b);
+
+          return null;
+        };
+      case BANG_EQUAL:
+        return (interpreter, frame) -> !Interpreter.isEqual(left.run(interpreter, frame), right.run(interpreter, frame));
+      case EQUAL_EQUAL:
+        return (interpreter, frame) -> Interpreter.isEqual(left.run(interpreter, frame), right.run(interpreter, frame));
+      default:
+        return (interpreter, frame) -> {
+          left.run(interpreter, frame);
+          right.run(interpreter, frame);
+
+          return null;
+        };
+    }
+  }
+
+  private Code numeric(Expr.Binary expr) {
+    NumberCode left = number(expr.left);
+    NumberCode right = number(expr.right);
+
+    switch (expr.operator.type) {
+      case GREATER:
+        return (interpreter, frame) -> left.run(interpreter, frame) > right.run(interpreter, frame);
+      case GREATER_EQUAL:
+        return (interpreter, frame) -> left.run(interpreter, frame) >= right.run(interpreter, frame);
+      case LESS:
+        return (interpreter, frame) -> left.run(interpreter, frame) < right.run(interpreter, frame);
+      case LESS_EQUAL:
+        return (interpreter, frame) -> left.run(interpreter, frame) <= right.run(interpreter, frame);
+      default:
+        NumberCode value = arithmetic(expr.operator.type, left, right);
+
+        return (interpreter, frame) -> value.run(interpreter, frame);
+    }
+  }
+
+  private static NumberCode arithmetic(TokenType operator, NumberCode left, NumberCode right) {
+    switch (operator) {
+      case PLUS:
+        return (interpreter, frame) -> left.run(interpreter, frame) + right.run(interpreter, frame);
+      case MINUS:
+        return (interpreter, frame) -> left.run(interpreter, frame) - right.run(interpreter, frame);
+      case SLASH:
+        return (interpreter, frame) -> left.run(interpreter, frame) / right.run(interpreter, frame);
+      default:
+        return (interpreter, frame) -> left.run(interpreter, frame) * right.run(interpreter, frame);
+    }
+  }
+
+  private NumberCode number(Expr expr) {
+    if (expr instanceof Expr.Grouping) {
+      return number(((Expr.Grouping) expr).expression);
+    }
+
+    if (expr instanceof Expr.Literal && ((Expr.Literal) expr).value instanceof Double) {
+      double value = (double) ((Expr.Literal) expr).value;
+
+      return (interpreter, frame) -> value;
+    }
+
+    if (expr instanceof Expr.Variable && ((Expr.Variable) expr).binding.kind == Binding.Kind.NUMBER) {
+      int index = ((Expr.Variable) expr).binding.index;
+
+      return (interpreter, frame) -> frame.numbers[index];
+    }
+
+    if (expr instanceof Expr.Assign && ((Expr.Assign) expr).binding.kind == Binding.Kind.NUMBER) {
+      NumberCode value = number(((Expr.Assign) expr).value);
+      int index = ((Expr.Assign) expr).binding.index;
+
+      return (interpreter, frame) -> frame.numbers[index] = value.run(interpreter, frame);
+    }
+
+    if (expr instanceof Expr.Binary && ((Expr.Binary) expr).operands == StaticType.NUMBER) {
+      Expr.Binary binary = (Expr.Binary) expr;
+
+      switch (binary.operator.type) {
+        case PLUS:
+        case MINUS:
+        case SLASH:
+        case STAR:
+          return arithmetic(binary.operator.type, number(binary.left), number(binary.right));
+      }
+    }
+
+    if (expr instanceof Expr.Unary && ((Expr.Unary) expr).operands == StaticType.NUMBER) {
+      NumberCode right = number(((Expr.Unary) expr).right);
+
+      return (interpreter, frame) -> -right.run(interpreter, frame);
+    }
+
+    Code code = code(expr);
+
+    return (interpreter, frame) -> (double) code.run(interpreter, frame);
+  }
+
+  private Code numberStore(Binding binding, Expr value) {
+    NumberCode number = number(value);
+    int index = binding.index;
+
+    return (interpreter, frame) -> frame.numbers[index] = number.run(interpreter, frame);
+  }
+
+  @Override
+  public Code visitCallExpr(Expr.Call expr) {
+    Code callee = code(expr.callee);
+    Code[] arguments = compileAll(expr.arguments);
+
+    switch (arguments.length) {
+      case 0:
+        return (interpreter, frame) -> interpreter.invoke(expr, frame, callee.run(interpreter, frame));
+      case 1: {
+        Code a = arguments[0];
+
+        return (interpreter, frame) -> {
+          Object value = callee.run(interpreter, frame);
+
+          return interpreter.invoke(expr, frame, value, a.run(interpreter, frame));
+        };
+      }
+      case 2: {
+        Code a = arguments[0];
+        Code b = arguments[1];
+
+        return (interpreter, frame) -> {
+          Object value = callee.run(interpreter, frame);
+          Object first = a.run(interpreter, frame);
+
+          return interpreter.invoke(expr, frame, value, first, b.run(interpreter, frame));
+        };
+      }
+      case 3: {
+        Code a = arguments[0];
+        Code b = arguments[1];
+        Code c = arguments[2];
+
+        return (interpreter, frame) -> {
+          Object value = callee.run(interpreter, frame);
+          Object first = a.run(interpreter, frame);
+          Object second = b.run(interpreter, frame);
+
+          return interpreter.invoke(expr, frame, value, first, second, c.run(interpreter, frame));
+        };
+      }
+      default:
+        return (interpreter, frame) -> {
+          Object value = callee.run(interpreter, frame);
+
+          return interpreter.invoke(expr, frame, value, evaluateAll(arguments, interpreter, frame));
+        };
+    }
+  }
+
+  @Override
+  public Code visitGetExpr(Expr.Get expr) {
+    Code object = code(expr.object);
+
+    return (interpreter, frame) -> interpreter.get(expr, object.run(interpreter, frame));
+  }
+
+  @Override
+  public Code visitSetExpr(Expr.Set expr) {
+    Code object = code(expr.object);
+    Code value = code(expr.value);
+
+    return (interpreter, frame) -> {
+      LoxInstance instance = interpreter.checkInstance(expr, object.run(interpreter, frame));
+      Object result = value.run(interpreter, frame);
+
+      instance.set(expr.name, result);
+
+      return result;
+    };
+  }
+
+  @Override
+  public Code visitGroupingExpr(Expr.Grouping expr) {
+    return code(expr.expression);
+  }
+
+  @Override
+  public Code visitThisExpr(Expr.This expr) {
+    return variable(expr.keyword, expr.binding);
+  }
+
+  @Override
+  public Code visitSuperExpr(Expr.Super expr) {
+    Code superclassCode = variable(expr.keyword, expr.binding);
+    Code receiver = variable(expr.keyword, expr.receiver);
+    String name = expr.method.lexeme;
+
+    return (interpreter, frame) -> {
+      LoxClass superclass = (LoxClass) superclassCode.run(interpreter, frame);
+      LoxInstance object = (LoxInstance) receiver.run(interpreter, frame);
+      LoxFunction method = superclass.findMethod(name);
+
+      if (method == null) {
+        throw new RuntimeError(expr.method, "Undefined property '" + name + "'.");
+      }
+
+      return method.bind(object);
+    };
+  }
+
+  @Override
+  public Code visitLiteralExpr(Expr.Literal expr) {
+    Object value = expr.value;
+
+    return (interpreter, frame) -> value;
+  }
+
+  @Override
+  public Code visitUnaryExpr(Expr.Unary expr) {
+    if (expr.operands == StaticType.NUMBER) {
+      NumberCode right = number(expr.right);
+
+      return (interpreter, frame) -> -right.run(interpreter, frame);
+    }
+
+    Code right = code(expr.right);
+    Token operator = expr.operator;
+
+    switch (operator.type) {
+      case MINUS:
+        return (interpreter, frame) -> {
+          Object value = right.run(interpreter, frame);
+
+          Interpreter.checkNumberOperand(operator, value);
+
+          return -(double) value;
+        };
+      case BANG:
+        return (interpreter, frame) -> !interpreter.isTruthy(right.run(interpreter, frame));
+      default:
+        return (interpreter, frame) -> {
+          right.run(interpreter, frame);
+
+          return null;
+        };
+    }
+  }
+
+  @Override
+  public Code visitConditionalExpr(Expr.Conditional expr) {
+    Code condition = code(expr.condition);
+    Code ifBranch = code(expr.ifBranch);
+    Code elseBranch = code(expr.elseBranch);
+
+    return (interpreter, frame) -> interpreter.isTruthy(condition.run(interpreter, frame))
+      ? ifBranch.run(interpreter, frame)
+      : elseBranch.run(interpreter, frame);
+  }
+
+  @Override
+  public Code visitVariableExpr(Expr.Variable expr) {
+    return variable(expr.name, expr.binding);
+  }
+
+  private Code variable(Token name, Binding binding) {
+    int index = binding.index;
+
+    switch (binding.kind) {
+      case GLOBAL:
+        return (interpreter, frame) -> Environment.get(name, frame.linkage.cells[index]);
+      case LOCAL:
+        return (interpreter, frame) -> frame.slots[index];
+      case NUMBER:
+        return (interpreter, frame) -> frame.numbers[index];
+      case CELL:
+        return (interpreter, frame) -> ((Cell) frame.slots[index]).value;
+      default:
+        return (interpreter, frame) -> frame.captures[index].value;
+    }
+  }
+
+  private Store definition(Token name, Binding binding) {
+    int index = binding.index;
+
+    switch (binding.kind) {
+      case GLOBAL:
+        return (interpreter, frame, value) -> frame.linkage.cells[index].value = value;
+      case LOCAL:
+        return (interpreter, frame, value) -> frame.slots[index] = value;
+      case NUMBER:
+        return (interpreter, frame, value) -> frame.numbers[index] = (double) value;
+      default:
+        return (interpreter, frame, value) -> frame.defineCell(index, value);
+    }
+  }
+
+  private Store assignment(Token name, Binding binding) {
+    int index = binding.index;
+
+    switch (binding.kind) {
+      case GLOBAL:
+        return (interpreter, frame, value) -> Environment.assign(name, frame.linkage.cells[index], value);
+      case LOCAL:
+        return (interpreter, frame, value) -> frame.slots[index] = value;
+      case NUMBER:
+        return (interpreter, frame, value) -> frame.numbers[index] = (double) value;
+      case CELL:
+        return (interpreter, frame, value) -> ((Cell) frame.slots[index]).value = value;
+      default:
+        return (interpreter, frame, value) -> frame.captures[index].value = value;
+    }
+  }
+
+  @Override
+  public Code visitLogicalExpr(Expr.Logical expr) {
+    Code left = code(expr.left);
+    Code right = code(expr.right);
+
+    if (expr.operator.type == TokenType.OR) {
+      return (interpreter, frame) -> {
+        Object value = left.run(interpreter, frame);
+
+        return interpreter.isTruthy(value) ? value : right.run(interpreter, frame);
+      };
+    }
+
+    return (interpreter, frame) -> {
+      Object value = left.run(interpreter, frame);
+
+      return interpreter.isTruthy(value) ? right.run(interpreter, frame) : value;
+    };
+  }
+}
@@ -0,0 +1,13 @@
+package com.hasz.lang.lox;
+
+class CompiledInterpreter extends Interpreter {
+  @Override
+  Object executeTopLevel(Stmt stmt) {
+    return ClosureCompiler.compile(stmt).run(this, frame);
+  }
+
+  @Override
+  Object executeBody(LoxFunction function, Frame frame) {
+    return ClosureCompiler.body(function.declaration).run(this, frame);
+  }
+}
@@ -0,0 +1,116 @@
+package com.hasz.lang.lox;
+
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class Context implements AutoCloseable {
+  private final Interpreter interpreter;
+  private final Map<String, Object> builtins;
+
+  public Context() {
+    this(new Interpreter());
+  }
+
+  Context(Interpreter interpreter) {
+    this.interpreter = interpreter;
+    this.builtins = interpreter.globals.values();
+  }
+
+  public static Context stackless(int maxDepth) {
+    return new Context(new StacklessInterpreter(maxDepth));
+  }
+
+  public static Context compiled() {
+    return new Context(new CompiledInterpreter());
+  }
+
+  public static Context tiered(int threshold) {
+    return new Context(new TieredInterpreter(threshold));
+  }
+
+  public static Context bytecode() {
+    return new Context(new VirtualMachine());
+  }
+
+  public Result execute(Program program) {
+    if (program.hasErrors()) {
+      throw new IllegalArgumentException("Cannot execute a program with compile errors.");
+    }
+
+    program.count(interpreter.statistics);
+
+    try {
+      interpreter.startBudget();
+
+      return new Result(interpreter.interpret(program), null);
+    } catch (RuntimeError error) {
+      return new Result(null, error.getMessage() + "\n[line " + error.token.line + "]");
+    } catch (BudgetExceeded error) {
+      return new Result(null, error.getMessage());
+    } finally {
+      interpreter.output.flush();
+    }
+  }
+
+  public void redirect(Writer writer, FlushPolicy policy) {
+    redirect(writer, policy, OutputSink.DEFAULT_THRESHOLD);
+  }
+
+  public void redirect(Writer writer, FlushPolicy policy, int threshold) {
+    interpreter.output.flush();
+    interpreter.output = new OutputSink(writer, policy, threshold);
+  }
+
+  public void limit(Budget budget) {
+    interpreter.budget = budget;
+  }
+
+  public void flush() {
+    interpreter.output.flush();
+  }
+
+  @Override
+  public void close() {
+    interpreter.output.flush();
+    interpreter.closeReaders();
+  }
+
+  LoxReader stdin() {
+    return interpreter.stdin();
+  }
+
+  void print(Object value) {
+    interpreter.print(value);
+  }
+
+  void define(String name, Object value) {
+    interpreter.globals.define(name, value);
+  }
+
+  Object global(String name) {
+    return interpreter.globals.lookup(name);
+  }
+
+  Map<String, Object> globals() {
+    Map<String, Object> globals = new HashMap<>(interpreter.globals.values());
+
+    globals.entrySet().removeIf(entry -> builtins.get(entry.getKey()) == entry.getValue());
+
+    return globals;
+  }
+
+  Result call(LoxCallable callable, Object[] arguments) {
+    try {
+      interpreter.startBudget();
+
+      return new Result(callable.call(interpreter, arguments), null);
+    } catch (RuntimeError error) {
+      return new Result(null, error.getMessage() + "\n[line " + error.token.line + "]");
+    } catch (NativeError | BudgetExceeded error) {
+      return new Result(null, error.getMessage());
+    } catch (StackOverflowError error) {
+      return new Result(null, "Stack overflow.");
+    }
+  }
+}
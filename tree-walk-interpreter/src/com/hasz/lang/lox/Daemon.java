@@ -0,0 +1,116 @@
+package com.hasz.lang.lox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class Daemon {
+  static final int CACHE_CAPACITY = 256;
+
+  private final Path socket;
+  private final LruCache<String, Program> programs = new LruCache<>(CACHE_CAPACITY);
+
+  Daemon(Path socket) {
+    this.socket = socket;
+  }
+
+  void serve() throws IOException {
+    Files.deleteIfExists(socket);
+
+    try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+         ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      server.bind(UnixDomainSocketAddress.of(socket));
+
+      for (;;) {
+        SocketChannel client = server.accept();
+
+        executor.submit(() -> handle(client));
+      }
+    } finally {
+      Files.deleteIfExists(socket);
+    }
+  }
+
+  private void handle(SocketChannel client) {
+    try (SocketChannel channel = client) {
+      DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+      DaemonProtocol.writeExit(output, run(DaemonProtocol.readString(input), output));
+    } catch (IOException | RuntimeException error) {
+      System.err.println("jlox daemon: " + error.getMessage());
+    }
+  }
+
+  private int run(String source, DataOutputStream output) throws IOException {
+    Program program = programs.get(source, Program::compile);
+
+    if (program.hasErrors()) {
+      for (String error : program.errors()) {
+        DaemonProtocol.writeFrame(output, DaemonProtocol.STDERR, error + "\n");
+      }
+
+      return 65;
+    }
+
+    try (Context context = new Context()) {
+      context.redirect(new FrameWriter(output), FlushPolicy.THRESHOLD);
+
+      Result result = context.execute(program);
+
+      if (result.hasError()) {
+        DaemonProtocol.writeFrame(output, DaemonProtocol.STDERR, result.error() + "\n");
+
+        return 70;
+      }
+
+      return 0;
+    }
+  }
+
+  private static class FrameWriter extends Writer {
+    private final DataOutputStream output;
+    private final StringBuilder pending = new StringBuilder();
+
+    FrameWriter(DataOutputStream output) {
+      this.output = output;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      pending.append(buffer, offset, length);
+    }
+
+    @Override
+    public Writer append(CharSequence characters) {
+      pending.append(characters);
+
+      return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (pending.length() > 0) {
+        DaemonProtocol.writeFrame(output, DaemonProtocol.STDOUT, pending.toString());
+        pending.setLength(0);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
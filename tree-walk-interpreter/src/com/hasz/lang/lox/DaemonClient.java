@@ -0,0 +1,49 @@
+package com.hasz.lang.lox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class DaemonClient {
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: jlox-client <socket> <script>");
+      System.exit(64);
+    }
+
+    String source = new String(Files.readAllBytes(Paths.get(args[1])), StandardCharsets.UTF_8);
+
+    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      channel.connect(UnixDomainSocketAddress.of(args[0]));
+
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+      DaemonProtocol.writeString(output, source);
+      output.flush();
+
+      for (;;) {
+        byte type = input.readByte();
+
+        if (type == DaemonProtocol.EXIT) {
+          System.out.flush();
+          System.exit(input.readInt());
+        }
+
+        PrintStream stream = type == DaemonProtocol.STDERR ? System.err : System.out;
+
+        stream.print(DaemonProtocol.readString(input));
+      }
+    }
+  }
+}
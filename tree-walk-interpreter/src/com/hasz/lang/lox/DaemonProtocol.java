@@ -0,0 +1,61 @@
+package com.hasz.lang.lox;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+class DaemonProtocol {
+  static final byte STDOUT = 'O';
+  static final byte STDERR = 'E';
+  static final byte EXIT = 'X';
+  static final int MAX_STRING_SIZE = 16 * 1024 * 1024;
+  private static final int MAX_FRAME_CHARS = MAX_STRING_SIZE / 3;
+
+  private DaemonProtocol() { }
+
+  static void writeString(DataOutputStream output, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+
+    if (length < 0 || length > MAX_STRING_SIZE) {
+      throw new IOException("Invalid string length " + length + ".");
+    }
+
+    byte[] bytes = new byte[length];
+
+    input.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeFrame(DataOutputStream output, byte type, String payload) throws IOException {
+    int start = 0;
+
+    do {
+      int end = Math.min(payload.length(), start + MAX_FRAME_CHARS);
+
+      if (end < payload.length() && Character.isHighSurrogate(payload.charAt(end - 1))) {
+        end--;
+      }
+
+      output.writeByte(type);
+      writeString(output, payload.substring(start, end));
+      start = end;
+    } while (start < payload.length());
+
+    output.flush();
+  }
+
+  static void writeExit(DataOutputStream output, int status) throws IOException {
+    output.writeByte(EXIT);
+    output.writeInt(status);
+    output.flush();
+  }
+}
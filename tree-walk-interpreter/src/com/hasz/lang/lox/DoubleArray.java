@@ -0,0 +1,147 @@
+package com.hasz.lang.lox;
+
+import java.util.Arrays;
+
+class DoubleArray extends NativeInstance {
+  static final NativeClass<DoubleArray> CLASS = new NativeClass<DoubleArray>("DoubleArray", (interpreter, lengthValue) -> {
+    int length = Natives.integer(lengthValue, "length");
+
+    if (length < 0) {
+      throw new NativeError("Expected length to be non-negative.");
+    }
+
+    return new DoubleArray(new double[length]);
+  })
+    .method("length", (interpreter, self) -> (double) self.values.length)
+    .method("get", (interpreter, self, index) -> self.values[Natives.index(index, self.values.length)])
+    .method("set", (interpreter, self, indexValue, value) -> {
+      int index = Natives.index(indexValue, self.values.length);
+
+      self.values[index] = Natives.number(value, "value");
+
+      return value;
+    })
+    .method("fill", (interpreter, self, value) -> {
+      Arrays.fill(self.values, Natives.number(value, "value"));
+
+      return self;
+    })
+    .method("copy", (interpreter, self) -> new DoubleArray(self.values.clone()))
+    .method("sum", (interpreter, self) -> sum(self.values))
+    .method("dot", (interpreter, self, other) -> dot(self.values, self.operand(other)))
+    .method("scale", (interpreter, self, factor) -> {
+      scale(self.values, Natives.number(factor, "factor"));
+
+      return self;
+    })
+    .method("add", (interpreter, self, other) -> {
+      add(self.values, self.operand(other));
+
+      return self;
+    })
+    .method("min", (interpreter, self) -> self.extreme(true))
+    .method("max", (interpreter, self) -> self.extreme(false))
+    .method("prefixSum", (interpreter, self) -> {
+      prefixSum(self.values);
+
+      return self;
+    });
+
+  private final double[] values;
+
+  DoubleArray(double[] values) {
+    this.values = values;
+  }
+
+  @Override
+  NativeClass<?> nativeClass() {
+    return CLASS;
+  }
+
+  private double[] operand(Object other) {
+    if (!(other instanceof DoubleArray)) {
+      throw new NativeError("Expected a DoubleArray.");
+    }
+
+    double[] operand = ((DoubleArray) other).values;
+
+    if (operand.length != values.length) {
+      throw new NativeError("Expected a DoubleArray of length " + values.length + " but got " + operand.length + ".");
+    }
+
+    return operand;
+  }
+
+  private double extreme(boolean min) {
+    if (values.length == 0) {
+      throw new NativeError("Cannot take the " + (min ? "min" : "max") + " of an empty array.");
+    }
+
+    double result = values[0];
+
+    for (int i = 1; i < values.length; i++) {
+      result = min ? Math.min(result, values[i]) : Math.max(result, values[i]);
+    }
+
+    return result;
+  }
+
+  private static double sum(double[] values) {
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+
+    for (; i + 3 < values.length; i += 4) {
+      s0 += values[i];
+      s1 += values[i + 1];
+      s2 += values[i + 2];
+      s3 += values[i + 3];
+    }
+
+    for (; i < values.length; i++) {
+      s0 += values[i];
+    }
+
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  private static double dot(double[] left, double[] right) {
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int i = 0;
+
+    for (; i + 3 < left.length; i += 4) {
+      s0 += left[i] * right[i];
+      s1 += left[i + 1] * right[i + 1];
+      s2 += left[i + 2] * right[i + 2];
+      s3 += left[i + 3] * right[i + 3];
+    }
+
+    for (; i < left.length; i++) {
+      s0 += left[i] * right[i];
+    }
+
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  private static void scale(double[] values, double factor) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] *= factor;
+    }
+  }
+
+  private static void add(double[] values, double[] other) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] += other[i];
+    }
+  }
+
+  private static void prefixSum(double[] values) {
+    for (int i = 1; i < values.length; i++) {
+      values[i] += values[i - 1];
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<DoubleArray " + values.length + ">";
+  }
+}
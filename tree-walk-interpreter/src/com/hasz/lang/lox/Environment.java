@@ -1,62 +1,73 @@
 package com.hasz.lang.lox;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 class Environment {
-  final Environment enclosing;
+  private static final Object UNDEFINED = new Object();
 
-  private final Map<String, Object> values = new HashMap<>();
+  private final Map<String, GlobalCell> cells = new HashMap<>();
 
-  Environment() {
-    enclosing = null;
+  static class GlobalCell {
+    Object value = UNDEFINED;
   }
 
-  Environment(Environment enclosing) {
-    this.enclosing = enclosing;
-  }
+  Linkage link(String[] names, int sites) {
+    GlobalCell[] linked = new GlobalCell[names.length];
 
-  void define(String name, Object value) {
-    values.put(name, value);
+    for (int i = 0; i < names.length; i++) {
+      linked[i] = cells.computeIfAbsent(names[i], name -> new GlobalCell());
+    }
+
+    return new Linkage(linked, sites);
   }
 
-  void assign(Token name, Object value) {
-    if (values.containsKey(name.lexeme)) {
-      values.put(name.lexeme, value);
-    } else if (enclosing != null) {
-      enclosing.assign(name, value);
-    } else {
-      throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
+  Map<String, Object> values() {
+    Map<String, Object> values = new HashMap<>();
+
+    for (Map.Entry<String, GlobalCell> entry : cells.entrySet()) {
+      if (entry.getValue().value != UNDEFINED) {
+        values.put(entry.getKey(), entry.getValue().value);
+      }
     }
+
+    return Collections.unmodifiableMap(values);
   }
 
-  void assignAt(int distance, Token name, Object value) {
-    ancestor(distance).values.put(name.lexeme, value);
+  void define(String name, Object value) {
+    cells.computeIfAbsent(name, key -> new GlobalCell()).value = value;
   }
 
-  Object getAt(int distance, String name) {
-    return ancestor(distance).values.get(name);
+  void assign(Token name, Object value) {
+    assign(name, cells.get(name.lexeme), value);
   }
 
-  Environment ancestor(int distance) {
-    Environment environment = this;
+  Object lookup(String name) {
+    GlobalCell cell = cells.get(name);
+
+    return cell == null || cell.value == UNDEFINED ? null : cell.value;
+  }
 
-    for (int i = 0; i < distance; i++) {
-      assert environment != null;
+  Object get(Token name) {
+    return get(name, cells.get(name.lexeme));
+  }
 
-      environment = environment.enclosing;
+  static void assign(Token name, GlobalCell cell, Object value) {
+    if (cell == null || cell.value == UNDEFINED) {
+      throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
     }
 
-    return environment;
+    cell.value = value;
   }
 
-  Object get(Token name) {
-    if (values.containsKey(name.lexeme)) {
-      return values.get(name.lexeme);
-    } else if (enclosing != null) {
-      return enclosing.get(name);
-    } else {
+  static Object get(Token name, GlobalCell cell) {
+    Object value = cell == null ? UNDEFINED : cell.value;
+
+    if (value == UNDEFINED) {
       throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
     }
+
+    return value;
   }
 }
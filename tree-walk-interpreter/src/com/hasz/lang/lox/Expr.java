@@ -31,6 +31,8 @@ abstract class Expr {
 
     final Token name;
     final Expr value;
+
+    Binding binding = null;
   }
 
   static class Binary extends Expr {
@@ -48,6 +50,8 @@ abstract class Expr {
     final Expr left;
     final Token operator;
     final Expr right;
+
+    StaticType operands = StaticType.UNKNOWN;
   }
 
   static class Call extends Expr {
@@ -65,6 +69,9 @@ abstract class Expr {
     final Expr callee;
     final Token paren;
     final List<Expr> arguments;
+
+    boolean isTailCall = false;
+    int site = -1;
   }
 
   static class Get extends Expr {
@@ -123,6 +130,8 @@ abstract class Expr {
     }
 
     final Token keyword;
+
+    Binding binding = null;
   }
 
   static class Super extends Expr {
@@ -138,6 +147,9 @@ abstract class Expr {
 
     final Token keyword;
     final Token method;
+
+    Binding binding = null;
+    Binding receiver = null;
   }
 
   static class Literal extends Expr {
@@ -166,6 +178,8 @@ abstract class Expr {
 
     final Token operator;
     final Expr right;
+
+    StaticType operands = StaticType.UNKNOWN;
   }
 
   static class Conditional extends Expr {
@@ -196,6 +210,8 @@ abstract class Expr {
     }
 
     final Token name;
+
+    Binding binding = null;
   }
 
   static class Logical extends Expr {
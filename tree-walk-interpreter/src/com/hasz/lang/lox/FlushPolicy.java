@@ -0,0 +1,5 @@
+package com.hasz.lang.lox;
+
+public enum FlushPolicy {
+  NEWLINE, THRESHOLD, EXIT
+}
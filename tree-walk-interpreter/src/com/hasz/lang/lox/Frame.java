@@ -0,0 +1,109 @@
+package com.hasz.lang.lox;
+
+import java.util.Arrays;
+
+class Frame {
+  static final Cell[] NO_CAPTURES = new Cell[0];
+
+  Object[] slots;
+  double[] numbers;
+  Cell[] captures;
+  Linkage linkage;
+  private int size;
+
+  Frame(int size, Cell[] captures, Linkage linkage) {
+    this.slots = new Object[size];
+    this.numbers = new double[size];
+    this.captures = captures;
+    this.linkage = linkage;
+    this.size = size;
+  }
+
+  void reset(int size, Cell[] captures, Linkage linkage) {
+    if (slots.length < size) {
+      slots = new Object[size];
+      numbers = new double[size];
+    }
+
+    this.captures = captures;
+    this.linkage = linkage;
+    this.size = size;
+  }
+
+  void clear() {
+    Arrays.fill(slots, 0, size, null);
+    Arrays.fill(numbers, 0, size, 0);
+    captures = null;
+    linkage = null;
+  }
+
+  void clear(int first, int count) {
+    Arrays.fill(slots, first, first + count, null);
+  }
+
+  Object get(Binding binding) {
+    switch (binding.kind) {
+      case LOCAL:
+        return slots[binding.index];
+      case NUMBER:
+        return numbers[binding.index];
+      case CELL:
+        return ((Cell) slots[binding.index]).value;
+      default:
+        return captures[binding.index].value;
+    }
+  }
+
+  void set(Binding binding, Object value) {
+    switch (binding.kind) {
+      case LOCAL:
+        slots[binding.index] = value;
+        break;
+      case NUMBER:
+        numbers[binding.index] = (double) value;
+        break;
+      case CELL:
+        ((Cell) slots[binding.index]).value = value;
+        break;
+      default:
+        captures[binding.index].value = value;
+    }
+  }
+
+  void define(Binding binding, Object value) {
+    switch (binding.kind) {
+      case NUMBER:
+        numbers[binding.index] = (double) value;
+        break;
+      case CELL:
+        defineCell(binding.index, value);
+        break;
+      default:
+        slots[binding.index] = value;
+    }
+  }
+
+  void defineCell(int index, Object value) {
+    if (slots[index] == null) {
+      slots[index] = new Cell(value);
+    } else {
+      ((Cell) slots[index]).value = value;
+    }
+  }
+
+  Cell[] capture(Binding[] bindings) {
+    if (bindings.length == 0) {
+      return NO_CAPTURES;
+    }
+
+    Cell[] cells = new Cell[bindings.length];
+
+    for (int i = 0; i < bindings.length; i++) {
+      Binding binding = bindings[i];
+
+      cells[i] = binding.kind == Binding.Kind.CAPTURE ? captures[binding.index] : (Cell) slots[binding.index];
+    }
+
+    return cells;
+  }
+}
@@ -6,39 +6,40 @@ import java.util.HashMap;
 import java.util.Map;
 
 class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
+  static final int STEP_BATCH = 1024;
+  static final int FRAME_POOL_SIZE = 256;
+
   final Environment globals = new Environment();
+  final Statistics statistics = new Statistics();
 
-  private Environment currentEnvironment = globals;
-  private final Map<Expr, Integer> locals = new HashMap<>();
+  Frame frame = new Frame(0, Frame.NO_CAPTURES, Linkage.EMPTY);
+  OutputSink output = OutputSink.standard();
+  Budget budget = Budget.unlimited();
 
-  Interpreter() {
-    globals.define("clock", new LoxCallable() {
-      @Override
-      public int arity() {
-        return 0;
-      }
+  private long stepsRemaining = Long.MAX_VALUE;
+  private long deadline = Long.MAX_VALUE;
+  private int countdown = 0;
+  private final Frame[] framePool = new Frame[FRAME_POOL_SIZE];
+  private int pooledFrames = 0;
+  private final List<LoxReader> readers = new ArrayList<>();
+  private LoxReader stdin = null;
 
-      @Override
-      public Object call(Interpreter interpreter, List<Object> arguments) {
-        return (double) System.currentTimeMillis() / 1000.0;
-      }
-
-      @Override
-      public String toString() {
-        return "<native fn>";
-      }
-    });
+  Interpreter() {
+    Natives.define(globals);
   }
 
-  Object interpret(List<Stmt> statements) {
+  Object interpret(Program program) {
     ArrayList<Object> values = new ArrayList<>();
+    Frame previous = frame;
 
     try {
-      for (Stmt statement : statements) {
-        values.add(execute(statement));
+      frame = new Frame(program.slots, Frame.NO_CAPTURES, globals.link(program.globals, program.sites));
+
+      for (Stmt statement : program.statements) {
+        values.add(executeTopLevel(statement));
       }
-    } catch (RuntimeError error) {
-      Main.runtimeError(error);
+    } finally {
+      frame = previous;
     }
 
     if (values.isEmpty()) {
@@ -48,18 +49,18 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
     }
   }
 
-  void resolve(Expr expr, int depth) {
-    locals.put(expr, depth);
-  }
-
   @Override
   public Object visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
-    return executeBlock(stmt.statements, new Environment(currentEnvironment));
+    Object value = executeStatements(stmt.statements);
+
+    frame.clear(stmt.firstSlot, stmt.slotCount);
+
+    return value;
   }
 
   @Override
   public Object visitBlockStmt(Stmt.Block stmt) {
-    return executeBlock(stmt.statements, currentEnvironment);
+    return executeStatements(stmt.statements);
   }
 
   @Override
@@ -75,22 +76,21 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
       }
     }
 
-    currentEnvironment.define(stmt.name.lexeme, null);
+    define(stmt.name, stmt.binding, null);
 
-    if (stmt.superclass != null) {
-      currentEnvironment = new Environment(currentEnvironment);
-      currentEnvironment.define("super", superclass);
+    if (superclass != null) {
+      frame.define(stmt.superBinding, superclass);
     }
 
     for (Stmt.Function method : stmt.methods) {
-      methods.put(method.name.lexeme, new LoxFunction(method, currentEnvironment, method.name.lexeme.equals("init")));
+      methods.put(method.name.lexeme, new LoxFunction(method, frame.capture(method.captures), frame.linkage, method.name.lexeme.equals("init")));
     }
 
     if (superclass != null) {
-      currentEnvironment = currentEnvironment.enclosing;
+      frame.clear(stmt.superBinding.index, 1);
     }
 
-    currentEnvironment.assign(stmt.name, new LoxClass(stmt.name.lexeme, (LoxClass) superclass, methods));
+    assign(stmt.name, stmt.binding, new LoxClass(stmt.name.lexeme, (LoxClass) superclass, methods));
 
     return null;
   }
@@ -102,8 +102,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitPrintStmt(Stmt.Print stmt) {
-    Object value = evaluate(stmt.expression);
-    System.out.println(new StringRendering(value));
+    print(evaluate(stmt.expression));
 
     return null;
   }
@@ -112,7 +111,9 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
   public Object visitReturnStmt(Stmt.Return stmt) {
     Object value = null;
 
-    if (stmt.value != null) {
+    if (stmt.value instanceof Expr.Call && ((Expr.Call) stmt.value).isTailCall) {
+      value = tailCall((Expr.Call) stmt.value);
+    } else if (stmt.value != null) {
       value = evaluate(stmt.value);
     }
 
@@ -121,9 +122,11 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitFunctionStmt(Stmt.Function stmt) {
-    LoxFunction fn = new LoxFunction(stmt, currentEnvironment, false);
+    define(stmt.name, stmt.binding, null);
 
-    currentEnvironment.define(stmt.name.lexeme, fn);
+    LoxFunction fn = new LoxFunction(stmt, frame.capture(stmt.captures), frame.linkage, false);
+
+    assign(stmt.name, stmt.binding, fn);
 
     return fn;
   }
@@ -143,13 +146,17 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitVarStmt(Stmt.Var stmt) {
+    if (stmt.binding.kind == Binding.Kind.NUMBER) {
+      return frame.numbers[stmt.binding.index] = number(stmt.initializer);
+    }
+
     Object initialValue = null;
 
     if (stmt.initializer != null) {
       initialValue = evaluate(stmt.initializer);
     }
 
-    currentEnvironment.define(stmt.name.lexeme, initialValue);
+    define(stmt.name, stmt.binding, initialValue);
 
     return initialValue;
   }
@@ -157,6 +164,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
   @Override
   public Object visitWhileStmt(Stmt.While stmt) {
     while (isTruthy(evaluate(stmt.condition))) {
+      step();
       execute(stmt.body);
     }
 
@@ -170,6 +178,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
     }
 
     while (stmt.condition == null || isTruthy(evaluate(stmt.condition))) {
+      step();
       execute(stmt.body);
 
       if (stmt.increment != null) {
@@ -182,22 +191,50 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitAssignExpr(Expr.Assign expr) {
-    Object value = evaluate(expr.value);
-    Integer distance = locals.get(expr);
-
-    if (distance != null) {
-      currentEnvironment.assignAt(distance, expr.name, value);
-    } else {
-      globals.assign(expr.name, value);
+    if (expr.binding.kind == Binding.Kind.NUMBER) {
+      return frame.numbers[expr.binding.index] = number(expr.value);
     }
 
-    return value;
+    return assign(expr, evaluate(expr.value));
   }
 
   @Override
   public Object visitBinaryExpr(Expr.Binary expr) {
-    Object left = evaluate(expr.left);
-    Object right = evaluate(expr.right);
+    if (expr.operands == StaticType.NUMBER) {
+      return numeric(expr.operator.type, number(expr.left), number(expr.right));
+    }
+
+    return binary(expr, evaluate(expr.left), evaluate(expr.right));
+  }
+
+  private double number(Expr expr) {
+    if (expr instanceof Expr.Variable && ((Expr.Variable) expr).binding.kind == Binding.Kind.NUMBER) {
+      return frame.numbers[((Expr.Variable) expr).binding.index];
+    }
+
+    if (expr instanceof Expr.Binary && ((Expr.Binary) expr).operands == StaticType.NUMBER) {
+      Expr.Binary binary = (Expr.Binary) expr;
+
+      switch (binary.operator.type) {
+        case PLUS:
+        case MINUS:
+        case SLASH:
+        case STAR:
+          return arithmetic(binary.operator.type, number(binary.left), number(binary.right));
+      }
+    }
+
+    return (double) evaluate(expr);
+  }
+
+  Object binary(Expr.Binary expr, Object left, Object right) {
+    if (expr.operands == StaticType.NUMBER) {
+      return numeric(expr.operator.type, (double) left, (double) right);
+    }
+
+    if (expr.operands == StaticType.STRING) {
+      return (String) left + (String) right;
+    }
 
     switch (expr.operator.type) {
       case GREATER:
@@ -243,55 +280,148 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
     }
   }
 
+  static Object numeric(TokenType operator, double left, double right) {
+    switch (operator) {
+      case GREATER:       return left > right;
+      case GREATER_EQUAL: return left >= right;
+      case LESS:          return left < right;
+      case LESS_EQUAL:    return left <= right;
+      default: return arithmetic(operator, left, right);
+    }
+  }
+
+  static double arithmetic(TokenType operator, double left, double right) {
+    switch (operator) {
+      case PLUS:  return left + right;
+      case MINUS: return left - right;
+      case SLASH: return left / right;
+      default:    return left * right;
+    }
+  }
+
   @Override
   public Object visitCallExpr(Expr.Call expr) {
     Object callee = evaluate(expr.callee);
-    List<Object> arguments = new ArrayList<>();
+    List<Expr> arguments = expr.arguments;
+
+    switch (arguments.size()) {
+      case 0:
+        return invoke(expr, frame, callee);
+      case 1:
+        return invoke(expr, frame, callee, evaluate(arguments.get(0)));
+      case 2: {
+        Object a = evaluate(arguments.get(0));
+
+        return invoke(expr, frame, callee, a, evaluate(arguments.get(1)));
+      }
+      case 3: {
+        Object a = evaluate(arguments.get(0));
+        Object b = evaluate(arguments.get(1));
 
-    for (Expr argument : expr.arguments) {
-      arguments.add(evaluate(argument));
+        return invoke(expr, frame, callee, a, b, evaluate(arguments.get(2)));
+      }
+      default:
+        return invoke(expr, frame, callee, evaluateArguments(expr));
     }
+  }
 
-    if (callee == null) {
-      throw new RuntimeError(expr.paren, "Variable is nil.");
+  Object invoke(Expr.Call expr, Frame frame, Object callee) {
+    LoxCallable function = checkCallable(expr, callee, frame);
+
+    step();
+
+    try {
+      return function.call0(this);
+    } catch (NativeError error) {
+      throw new RuntimeError(expr.paren, error.getMessage());
+    } catch (StackOverflowError error) {
+      throw new RuntimeError(expr.paren, "Stack overflow.");
     }
+  }
 
-    if (!(callee instanceof LoxCallable)) {
-      throw new RuntimeError(expr.paren, "Can only call functions and classes.");
+  Object invoke(Expr.Call expr, Frame frame, Object callee, Object a) {
+    LoxCallable function = checkCallable(expr, callee, frame);
+
+    step();
+
+    try {
+      return function.call1(this, a);
+    } catch (NativeError error) {
+      throw new RuntimeError(expr.paren, error.getMessage());
+    } catch (StackOverflowError error) {
+      throw new RuntimeError(expr.paren, "Stack overflow.");
     }
+  }
 
-    LoxCallable function = (LoxCallable) callee;
+  Object invoke(Expr.Call expr, Frame frame, Object callee, Object a, Object b) {
+    LoxCallable function = checkCallable(expr, callee, frame);
 
-    if (arguments.size() != function.arity()) {
-      throw new RuntimeError(expr.paren, "Expected " + function.arity() + " arguments but got " + arguments.size() + ".");
+    step();
+
+    try {
+      return function.call2(this, a, b);
+    } catch (NativeError error) {
+      throw new RuntimeError(expr.paren, error.getMessage());
+    } catch (StackOverflowError error) {
+      throw new RuntimeError(expr.paren, "Stack overflow.");
+    }
+  }
+
+  Object invoke(Expr.Call expr, Frame frame, Object callee, Object a, Object b, Object c) {
+    LoxCallable function = checkCallable(expr, callee, frame);
+
+    step();
+
+    try {
+      return function.call3(this, a, b, c);
+    } catch (NativeError error) {
+      throw new RuntimeError(expr.paren, error.getMessage());
+    } catch (StackOverflowError error) {
+      throw new RuntimeError(expr.paren, "Stack overflow.");
     }
+  }
 
-    return function.call(this, arguments);
+  Object invoke(Expr.Call expr, Frame frame, Object callee, Object[] arguments) {
+    LoxCallable function = checkCallable(expr, callee, frame);
+
+    step();
+
+    return call(expr.paren, function, arguments);
   }
 
   @Override
   public Object visitGetExpr(Expr.Get expr) {
-    Object object = evaluate(expr.object);
+    return get(expr, evaluate(expr.object));
+  }
 
+  Object get(Expr.Get expr, Object object) {
     if (object instanceof LoxInstance) {
       return ((LoxInstance) object).get(expr.name);
     }
 
+    if (object instanceof NativeInstance) {
+      return ((NativeInstance) object).get(expr.name);
+    }
+
     throw new RuntimeError(expr.name, "Only instances have properties.");
   }
 
   @Override
   public Object visitSetExpr(Expr.Set expr) {
-    Object object = evaluate(expr.object);
+    LoxInstance object = checkInstance(expr, evaluate(expr.object));
+    Object value = evaluate(expr.value);
+
+    object.set(expr.name, value);
+
+    return value;
+  }
 
+  LoxInstance checkInstance(Expr.Set expr, Object object) {
     if (!(object instanceof LoxInstance)) {
       throw new RuntimeError(expr.name, "Only instances have fields.");
     }
 
-    Object value = evaluate(expr.value);
-    ((LoxInstance) object).set(expr.name, value);
-
-    return value;
+    return (LoxInstance) object;
   }
 
   @Override
@@ -301,14 +431,13 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitThisExpr(Expr.This expr) {
-    return lookUpVariable(expr.keyword, expr);
+    return frame.get(expr.binding);
   }
 
   @Override
   public Object visitSuperExpr(Expr.Super expr) {
-    int distance = locals.get(expr);
-    LoxClass superclass = (LoxClass) currentEnvironment.getAt(distance, "super");
-    LoxInstance object = (LoxInstance) currentEnvironment.getAt(distance - 1, "this");
+    LoxClass superclass = (LoxClass) frame.get(expr.binding);
+    LoxInstance object = (LoxInstance) frame.get(expr.receiver);
     LoxFunction method = superclass.findMethod(expr.method.lexeme);
 
     if (method == null) {
@@ -325,11 +454,19 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitUnaryExpr(Expr.Unary expr) {
-    Object right = evaluate(expr.right);
+    if (expr.operands == StaticType.NUMBER) {
+      return -number(expr.right);
+    }
+
+    return unary(expr, evaluate(expr.right));
+  }
 
+  Object unary(Expr.Unary expr, Object right) {
     switch (expr.operator.type) {
       case MINUS:
-        checkNumberOperand(expr.operator, right);
+        if (expr.operands != StaticType.NUMBER) {
+          checkNumberOperand(expr.operator, right);
+        }
 
         return -(double) right;
       case BANG:
@@ -347,7 +484,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
 
   @Override
   public Object visitVariableExpr(Expr.Variable expr) {
-    return lookUpVariable(expr.name, expr);
+    return lookUpVariable(expr.name, expr.binding);
   }
 
   @Override
@@ -379,57 +516,249 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
     return stmt.accept(this);
   }
 
-  private Object lookUpVariable(Token name, Expr expr) {
-    Integer distance = locals.get(expr);
+  private Object tailCall(Expr.Call expr) {
+    Object callee = evaluate(expr.callee);
+    Object[] arguments = evaluateArguments(expr);
+    LoxCallable function = checkCallable(expr, callee, frame);
+
+    step();
+
+    if (function instanceof LoxFunction) {
+      throw new TailCall((LoxFunction) function, arguments);
+    }
+
+    return call(expr.paren, function, arguments);
+  }
+
+  Object call(Token paren, LoxCallable function, Object[] arguments) {
+    try {
+      return function.call(this, arguments);
+    } catch (NativeError error) {
+      throw new RuntimeError(paren, error.getMessage());
+    } catch (StackOverflowError error) {
+      throw new RuntimeError(paren, "Stack overflow.");
+    }
+  }
 
-    if (distance != null) {
-      return currentEnvironment.getAt(distance, name.lexeme);
+  Object[] evaluateArguments(Expr.Call expr) {
+    int count = expr.arguments.size();
+
+    if (count == 0) {
+      return LoxCallable.NO_ARGUMENTS;
+    }
+
+    Object[] arguments = new Object[count];
+
+    for (int i = 0; i < count; i++) {
+      arguments[i] = evaluate(expr.arguments.get(i));
+    }
+
+    return arguments;
+  }
+
+  LoxCallable checkCallable(Expr.Call expr, Object callee, Frame frame) {
+    int site = expr.site;
+
+    if (site >= 0) {
+      LoxCallable target = frame.linkage.targets[site];
+
+      if (target != null && callee == target) {
+        return target;
+      }
+    }
+
+    if (callee == null) {
+      throw new RuntimeError(expr.paren, "Variable is nil.");
+    }
+
+    if (!(callee instanceof LoxCallable)) {
+      throw new RuntimeError(expr.paren, "Can only call functions and classes.");
+    }
+
+    LoxCallable function = (LoxCallable) callee;
+
+    int count = expr.arguments.size();
+
+    if (count != function.arity()) {
+      throw new RuntimeError(expr.paren, "Expected " + function.arity() + " arguments but got " + count + ".");
+    }
+
+    if (site >= 0) {
+      frame.linkage.targets[site] = function;
+    }
+
+    return function;
+  }
+
+  void startBudget() {
+    stepsRemaining = budget.maxSteps;
+    deadline = budget.maxNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budget.maxNanos;
+    countdown = 0;
+  }
+
+  final void step() {
+    if (--countdown < 0) {
+      refillSteps();
+    }
+  }
+
+  private void refillSteps() {
+    if (stepsRemaining == 0) {
+      throw new BudgetExceeded("Step budget exceeded.");
+    }
+
+    if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+      throw new BudgetExceeded("Time budget exceeded.");
+    }
+
+    if (Thread.interrupted()) {
+      throw new BudgetExceeded("Execution interrupted.");
+    }
+
+    int batch = (int) Math.min(STEP_BATCH, stepsRemaining);
+
+    stepsRemaining -= batch;
+    countdown = batch - 1;
+  }
+
+  Object executeTopLevel(Stmt stmt) {
+    return execute(stmt);
+  }
+
+  Object lookUpVariable(Token name, Binding binding) {
+    if (binding.kind == Binding.Kind.GLOBAL) {
+      return Environment.get(name, frame.linkage.cells[binding.index]);
     } else {
-      return globals.get(name);
+      return frame.get(binding);
     }
   }
 
-  Object executeBlock(List<Stmt> statements, Environment environment) {
-    Environment previous = this.currentEnvironment;
-    ArrayList<Object> values = new ArrayList<>();
+  void define(Token name, Binding binding, Object value) {
+    if (binding.kind == Binding.Kind.GLOBAL) {
+      frame.linkage.cells[binding.index].value = value;
+    } else {
+      frame.define(binding, value);
+    }
+  }
 
-    try {
-      this.currentEnvironment = environment;
+  void assign(Token name, Binding binding, Object value) {
+    if (binding.kind == Binding.Kind.GLOBAL) {
+      Environment.assign(name, frame.linkage.cells[binding.index], value);
+    } else {
+      frame.set(binding, value);
+    }
+  }
+
+  Object assign(Expr.Assign expr, Object value) {
+    assign(expr.name, expr.binding, value);
+
+    return value;
+  }
+
+  void print(Object value) {
+    output.println(value);
+  }
+
+  LoxReader stdin() {
+    if (stdin == null) {
+      stdin = IoNatives.stdin();
+    }
 
-      for (Stmt statement : statements) {
-        values.add(execute(statement));
+    return stdin;
+  }
+
+  LoxReader track(LoxReader reader) {
+    readers.removeIf(LoxReader::isClosed);
+    readers.add(reader);
+
+    return reader;
+  }
+
+  void closeReaders() {
+    NativeError failure = null;
+
+    for (LoxReader reader : readers) {
+      try {
+        reader.close();
+      } catch (NativeError error) {
+        failure = failure == null ? error : failure;
       }
+    }
+
+    readers.clear();
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  Frame acquireFrame(int size, Cell[] captures, Linkage linkage) {
+    if (pooledFrames == 0) {
+      return new Frame(size, captures, linkage);
+    }
+
+    Frame frame = framePool[--pooledFrames];
+
+    framePool[pooledFrames] = null;
+    frame.reset(size, captures, linkage);
+
+    return frame;
+  }
+
+  void releaseFrame(Frame frame) {
+    frame.clear();
+
+    if (pooledFrames < FRAME_POOL_SIZE) {
+      framePool[pooledFrames++] = frame;
+    }
+  }
+
+  Object executeBody(LoxFunction function, Frame frame) {
+    return executeBlock(function.declaration.body, frame);
+  }
+
+  Object executeBlock(List<Stmt> statements, Frame frame) {
+    Frame previous = this.frame;
+
+    try {
+      this.frame = frame;
+
+      return executeStatements(statements);
     } finally {
-      this.currentEnvironment = previous;
+      this.frame = previous;
     }
+  }
 
-    if (values.isEmpty()) {
-      return null;
-    } else {
-      return values.get(values.size() - 1);
+  private Object executeStatements(List<Stmt> statements) {
+    Object value = null;
+
+    for (Stmt statement : statements) {
+      value = execute(statement);
     }
+
+    return value;
   }
 
-  private boolean isTruthy(Object object) {
+  boolean isTruthy(Object object) {
     if (object == null) return false;
     if (object instanceof Boolean) return (boolean)object;
 
     return true;
   }
 
-  private void checkNumberOperand(Token operator, Object operand) {
+  static void checkNumberOperand(Token operator, Object operand) {
     if (!(operand instanceof Double)) {
       throw new RuntimeError(operator, "Expected operand to be a number.");
     }
   }
 
-  private void checkNumberOperands(Token operator, Object left, Object right) {
+  static void checkNumberOperands(Token operator, Object left, Object right) {
     if (!(left instanceof Double && right instanceof Double)) {
       throw new RuntimeError(operator, "Expected operands to be numbers.");
     }
   }
 
-  private void checkConcatOperands(Token operator, Object left, Object right) {
+  static void checkConcatOperands(Token operator, Object left, Object right) {
     boolean bothNumbers = left instanceof Double && right instanceof Double;
     boolean bothStrings = left instanceof String && right instanceof String;
 
@@ -438,12 +767,12 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object> {
     }
   }
 
-  private boolean isEqual(Object a, Object b) {
-    if (a == null && b == null) {
+  static boolean isEqual(Object a, Object b) {
+    if (a == b) {
       return true;
     }
 
-    if (a == null) {
+    if (a == null || b == null) {
       return false;
     }
 
@@ -0,0 +1,44 @@
+package com.hasz.lang.lox;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+class IoNatives {
+  private IoNatives() { }
+
+  static void define(Environment globals) {
+    globals.define("lines", new NativeFunction("lines", (interpreter, path) ->
+      interpreter.track(open(Natives.string(path, "path"), LoxReader.DEFAULT_BUFFER_SIZE))
+    ));
+
+    globals.define("open", new NativeFunction("open", (interpreter, path, bufferSizeValue) -> {
+      int bufferSize = Natives.integer(bufferSizeValue, "buffer size");
+
+      if (bufferSize <= 0) {
+        throw new NativeError("Expected buffer size to be positive.");
+      }
+
+      return interpreter.track(open(Natives.string(path, "path"), bufferSize));
+    }));
+
+    globals.define("stdin", new NativeFunction("stdin", interpreter -> interpreter.stdin()));
+  }
+
+  static LoxReader stdin() {
+    FileChannel channel = new FileInputStream(FileDescriptor.in).getChannel();
+
+    return new LoxReader("stdin", channel, LoxReader.DEFAULT_BUFFER_SIZE, false);
+  }
+
+  private static LoxReader open(String path, int bufferSize) {
+    try {
+      return new LoxReader(path, FileChannel.open(Paths.get(path), StandardOpenOption.READ), bufferSize, true);
+    } catch (IOException | RuntimeException error) {
+      throw new NativeError("Could not open '" + path + "'.");
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.hasz.lang.lox;
+
+class Linkage {
+  static final Linkage EMPTY = new Linkage(new Environment.GlobalCell[0], 0);
+
+  final Environment.GlobalCell[] cells;
+  final LoxCallable[] targets;
+
+  Linkage(Environment.GlobalCell[] cells, int sites) {
+    this.cells = cells;
+    this.targets = new LoxCallable[sites];
+  }
+}
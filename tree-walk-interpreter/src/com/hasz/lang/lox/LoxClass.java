@@ -1,17 +1,18 @@
 package com.hasz.lang.lox;
 
-import java.util.List;
 import java.util.Map;
 
 class LoxClass implements LoxCallable {
   final String name;
   final LoxClass superclass;
   private final Map<String, LoxFunction> methods;
+  final LoxFunction initializer;
 
   LoxClass(String name, LoxClass superclass, Map<String, LoxFunction> methods) {
     this.name = name;
     this.superclass = superclass;
     this.methods = methods;
+    this.initializer = findMethod("init");
   }
 
   LoxFunction findMethod(String name) {
@@ -31,8 +32,6 @@ class LoxClass implements LoxCallable {
 
   @Override
   public int arity() {
-    LoxFunction initializer = findMethod("init");
-
     if (initializer == null) {
       return 0;
     } else {
@@ -41,9 +40,8 @@ class LoxClass implements LoxCallable {
   }
 
   @Override
-  public Object call(Interpreter interpreter, List<Object> arguments) {
+  public Object call(Interpreter interpreter, Object[] arguments) {
     LoxInstance instance = new LoxInstance(this);
-    LoxFunction initializer = findMethod("init");
 
     if (initializer != null) {
       initializer.bind(instance).call(interpreter, arguments);
@@ -51,4 +49,48 @@ class LoxClass implements LoxCallable {
 
     return instance;
   }
+
+  @Override
+  public Object call0(Interpreter interpreter) {
+    LoxInstance instance = new LoxInstance(this);
+
+    if (initializer != null) {
+      initializer.bind(instance).call0(interpreter);
+    }
+
+    return instance;
+  }
+
+  @Override
+  public Object call1(Interpreter interpreter, Object a) {
+    LoxInstance instance = new LoxInstance(this);
+
+    if (initializer != null) {
+      initializer.bind(instance).call1(interpreter, a);
+    }
+
+    return instance;
+  }
+
+  @Override
+  public Object call2(Interpreter interpreter, Object a, Object b) {
+    LoxInstance instance = new LoxInstance(this);
+
+    if (initializer != null) {
+      initializer.bind(instance).call2(interpreter, a, b);
+    }
+
+    return instance;
+  }
+
+  @Override
+  public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+    LoxInstance instance = new LoxInstance(this);
+
+    if (initializer != null) {
+      initializer.bind(instance).call3(interpreter, a, b, c);
+    }
+
+    return instance;
+  }
 }
@@ -0,0 +1,40 @@
+package com.hasz.lang.lox;
+
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class LoxExecutor implements AutoCloseable {
+  static final int CACHE_CAPACITY = 1024;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final LruCache<String, Program> programs = new LruCache<>(CACHE_CAPACITY);
+
+  public Future<Result> submit(String source, Budget budget, Writer output) {
+    Program program = programs.get(source, Program::compile);
+
+    if (program.hasErrors()) {
+      return CompletableFuture.completedFuture(new Result(null, String.join("\n", program.errors())));
+    }
+
+    return submit(program, budget, output);
+  }
+
+  public Future<Result> submit(Program program, Budget budget, Writer output) {
+    return executor.submit(() -> {
+      try (Context context = new Context()) {
+        context.redirect(output, FlushPolicy.THRESHOLD);
+        context.limit(budget);
+
+        return context.execute(program);
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    executor.close();
+  }
+}
@@ -1,23 +1,30 @@
 package com.hasz.lang.lox;
 
-import java.util.List;
-
 class LoxFunction implements LoxCallable {
-  private final Stmt.Function declaration;
-  private final Environment closure;
-  private final boolean isInitializer;
+  final Stmt.Function declaration;
+  final Cell[] captures;
+  final Linkage linkage;
+  final LoxInstance receiver;
+  final boolean isInitializer;
+  final Profile profile;
+  private final Frame emptyFrame;
+
+  LoxFunction(Stmt.Function declaration, Cell[] captures, Linkage linkage, boolean isInitializer) {
+    this(declaration, captures, linkage, null, isInitializer, new Profile());
+  }
 
-  LoxFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
-    this.closure = closure;
+  private LoxFunction(Stmt.Function declaration, Cell[] captures, Linkage linkage, LoxInstance receiver, boolean isInitializer, Profile profile) {
+    this.captures = captures;
+    this.linkage = linkage;
     this.declaration = declaration;
+    this.receiver = receiver;
     this.isInitializer = isInitializer;
+    this.profile = profile;
+    this.emptyFrame = declaration.slots == 0 ? new Frame(0, captures, linkage) : null;
   }
 
   LoxFunction bind(LoxInstance instance) {
-    Environment environment = new Environment(closure);
-    environment.define("this", instance);
-
-    return new LoxFunction(declaration, environment, isInitializer);
+    return new LoxFunction(declaration, captures, linkage, instance, isInitializer, profile);
   }
 
   @Override
@@ -26,21 +33,103 @@ class LoxFunction implements LoxCallable {
   }
 
   @Override
-  public Object call(Interpreter interpreter, List<Object> arguments) {
-    Environment environment = new Environment(closure);
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return run(interpreter, bindArguments(interpreter, arguments));
+  }
+
+  @Override
+  public Object call0(Interpreter interpreter) {
+    return run(interpreter, frame(interpreter));
+  }
+
+  @Override
+  public Object call1(Interpreter interpreter, Object a) {
+    Frame frame = frame(interpreter);
+
+    frame.define(declaration.parameters[0], a);
+
+    return run(interpreter, frame);
+  }
+
+  @Override
+  public Object call2(Interpreter interpreter, Object a, Object b) {
+    Frame frame = frame(interpreter);
+
+    frame.define(declaration.parameters[0], a);
+    frame.define(declaration.parameters[1], b);
+
+    return run(interpreter, frame);
+  }
+
+  @Override
+  public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+    Frame frame = frame(interpreter);
+
+    frame.define(declaration.parameters[0], a);
+    frame.define(declaration.parameters[1], b);
+    frame.define(declaration.parameters[2], c);
+
+    return run(interpreter, frame);
+  }
 
-    for (int i = 0; i < declaration.params.size(); i++) {
-      environment.define(declaration.params.get(i).lexeme, arguments.get(i));
+  Frame bindArguments(Interpreter interpreter, Object[] arguments) {
+    Frame frame = frame(interpreter);
+
+    for (int i = 0; i < declaration.parameters.length; i++) {
+      frame.define(declaration.parameters[i], arguments[i]);
+    }
+
+    return frame;
+  }
+
+  private Frame frame(Interpreter interpreter) {
+    if (emptyFrame != null) {
+      return emptyFrame;
+    }
+
+    Frame frame = interpreter.acquireFrame(declaration.slots, captures, linkage);
+
+    if (declaration.receiver != null) {
+      frame.define(declaration.receiver, receiver);
+    }
+
+    return frame;
+  }
+
+  void release(Interpreter interpreter, Frame frame) {
+    if (frame != emptyFrame) {
+      interpreter.releaseFrame(frame);
+    }
+  }
+
+  Object returnValue(Object value) {
+    if (isInitializer) {
+      return receiver;
+    } else {
+      return value;
     }
+  }
+
+  private Object run(Interpreter interpreter, Frame frame) {
+    LoxFunction function = this;
 
+    for (;;) {
+      try {
+        return function.invoke(interpreter, frame);
+      } catch (TailCall tailCall) {
+        function = tailCall.function;
+        frame = function.bindArguments(interpreter, tailCall.arguments);
+      }
+    }
+  }
+
+  private Object invoke(Interpreter interpreter, Frame frame) {
     try {
-      return interpreter.executeBlock(declaration.body, environment);
+      return interpreter.executeBody(this, frame);
     } catch (Return returnValue) {
-      if (isInitializer) {
-        return closure.getAt(0, "this");
-      } else {
-        return returnValue.value;
-      }
+      return returnValue(returnValue.value);
+    } finally {
+      release(interpreter, frame);
     }
   }
 
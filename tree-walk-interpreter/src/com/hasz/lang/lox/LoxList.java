@@ -0,0 +1,174 @@
+package com.hasz.lang.lox;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+class LoxList extends NativeInstance {
+  static final NativeClass<LoxList> CLASS = new NativeClass<LoxList>("List", interpreter -> new LoxList())
+    .method("length", (interpreter, self) -> (double) self.size)
+    .method("get", (interpreter, self, index) -> self.get(Natives.index(index, self.size)))
+    .method("set", (interpreter, self, index, value) -> self.set(Natives.index(index, self.size), value))
+    .method("push", (interpreter, self, value) -> {
+      self.add(value);
+
+      return null;
+    })
+    .method("pop", (interpreter, self) -> self.removeLast())
+    .method("slice", (interpreter, self, start, end) -> self.slice(start, end))
+    .method("forEach", (interpreter, self, callback) -> {
+      LoxCallable function = Natives.callable(callback, 1);
+
+      for (int i = 0; i < self.size; i++) {
+        Natives.call(interpreter, function, self.elements[i]);
+      }
+
+      return null;
+    })
+    .method("map", (interpreter, self, callback) -> {
+      LoxCallable function = Natives.callable(callback, 1);
+      LoxList result = new LoxList(self.size);
+
+      for (int i = 0; i < self.size; i++) {
+        result.add(Natives.call(interpreter, function, self.elements[i]));
+      }
+
+      return result;
+    })
+    .method("filter", (interpreter, self, callback) -> {
+      LoxCallable function = Natives.callable(callback, 1);
+      LoxList result = new LoxList();
+
+      for (int i = 0; i < self.size; i++) {
+        if (interpreter.isTruthy(Natives.call(interpreter, function, self.elements[i]))) {
+          result.add(self.elements[i]);
+        }
+      }
+
+      return result;
+    })
+    .method("reduce", (interpreter, self, callback, initial) -> {
+      LoxCallable function = Natives.callable(callback, 2);
+      Object accumulator = initial;
+
+      for (int i = 0; i < self.size; i++) {
+        accumulator = Natives.call(interpreter, function, accumulator, self.elements[i]);
+      }
+
+      return accumulator;
+    })
+    .method("sort", (interpreter, self, callback) -> {
+      self.sort(callback == null ? LoxList::compare : comparator(interpreter, Natives.callable(callback, 2)));
+
+      return self;
+    });
+
+  private static final Object[] EMPTY = {};
+
+  private Object[] elements;
+  private int size = 0;
+
+  LoxList() {
+    this.elements = EMPTY;
+  }
+
+  LoxList(int capacity) {
+    this.elements = capacity == 0 ? EMPTY : new Object[capacity];
+  }
+
+  @Override
+  NativeClass<?> nativeClass() {
+    return CLASS;
+  }
+
+  int size() {
+    return size;
+  }
+
+  Object get(int index) {
+    return elements[index];
+  }
+
+  Object set(int index, Object value) {
+    elements[index] = value;
+
+    return value;
+  }
+
+  void add(Object value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(8, size * 2));
+    }
+
+    elements[size++] = value;
+  }
+
+  private Object removeLast() {
+    if (size == 0) {
+      throw new NativeError("Cannot pop from an empty list.");
+    }
+
+    Object value = elements[--size];
+    elements[size] = null;
+
+    return value;
+  }
+
+  private LoxList slice(Object startValue, Object endValue) {
+    int start = Natives.integer(startValue, "start");
+    int end = Natives.integer(endValue, "end");
+
+    if (start < 0 || end > size || start > end) {
+      throw new NativeError("Slice [" + start + ", " + end + ") out of bounds for length " + size + ".");
+    }
+
+    LoxList result = new LoxList(end - start);
+
+    System.arraycopy(elements, start, result.elements, 0, end - start);
+    result.size = end - start;
+
+    return result;
+  }
+
+  private void sort(Comparator<Object> comparator) {
+    try {
+      Arrays.sort(elements, 0, size, comparator);
+    } catch (IllegalArgumentException error) {
+      throw new NativeError("Inconsistent sort comparator.");
+    }
+  }
+
+  private static Comparator<Object> comparator(Interpreter interpreter, LoxCallable function) {
+    return (left, right) -> {
+      double order = Natives.number(Natives.call(interpreter, function, left, right), "comparator result");
+
+      return order < 0 ? -1 : order > 0 ? 1 : 0;
+    };
+  }
+
+  private static int compare(Object left, Object right) {
+    if (left instanceof Double && right instanceof Double) {
+      return Double.compare((double) left, (double) right);
+    }
+
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+
+    throw new NativeError("Can only sort numbers or strings without a comparator.");
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+
+      builder.append(new StringRendering(elements[i]));
+    }
+
+    return builder.append("]").toString();
+  }
+}
@@ -0,0 +1,209 @@
+package com.hasz.lang.lox;
+
+class LoxMap extends NativeInstance {
+  private static final double MAX_LOAD = 0.75;
+  private static final Object TOMBSTONE = new Object();
+
+  static final NativeClass<LoxMap> CLASS = new NativeClass<LoxMap>("Map", interpreter -> new LoxMap())
+    .method("size", (interpreter, self) -> (double) self.size)
+    .method("get", (interpreter, self, key) -> self.get(key))
+    .method("has", (interpreter, self, key) -> self.find(checkKey(key)) >= 0)
+    .method("set", (interpreter, self, key, value) -> {
+      self.set(key, value);
+
+      return value;
+    })
+    .method("remove", (interpreter, self, key) -> self.remove(key))
+    .method("keys", (interpreter, self) -> self.collect(true))
+    .method("values", (interpreter, self) -> self.collect(false))
+    .method("forEach", (interpreter, self, callback) -> {
+      LoxCallable function = Natives.callable(callback, 2);
+
+      for (int i = 0; i < self.keys.length; i++) {
+        if (self.keys[i] != null && self.keys[i] != TOMBSTONE) {
+          Natives.call(interpreter, function, self.keys[i], self.values[i]);
+        }
+      }
+
+      return null;
+    });
+
+  private Object[] keys = new Object[8];
+  private Object[] values = new Object[8];
+  private int[] hashes = new int[8];
+  private int count = 0;
+  private int size = 0;
+
+  @Override
+  NativeClass<?> nativeClass() {
+    return CLASS;
+  }
+
+  Object get(Object key) {
+    int index = find(checkKey(key));
+
+    return index >= 0 ? values[index] : null;
+  }
+
+  void set(Object key, Object value) {
+    checkKey(key);
+
+    if (count + 1 > keys.length * MAX_LOAD) {
+      adjustCapacity(size + 1 > keys.length * MAX_LOAD / 2 ? keys.length * 2 : keys.length);
+    }
+
+    int hash = hash(key);
+    int mask = keys.length - 1;
+    int tombstone = -1;
+
+    for (int index = hash & mask; ; index = (index + 1) & mask) {
+      Object existing = keys[index];
+
+      if (existing == null) {
+        if (tombstone >= 0) {
+          index = tombstone;
+        } else {
+          count++;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        size++;
+
+        return;
+      } else if (existing == TOMBSTONE) {
+        if (tombstone < 0) {
+          tombstone = index;
+        }
+      } else if (hashes[index] == hash && matches(existing, key)) {
+        values[index] = value;
+
+        return;
+      }
+    }
+  }
+
+  boolean remove(Object key) {
+    int index = find(checkKey(key));
+
+    if (index < 0) {
+      return false;
+    }
+
+    keys[index] = TOMBSTONE;
+    values[index] = null;
+    size--;
+
+    return true;
+  }
+
+  private int find(Object key) {
+    int hash = hash(key);
+    int mask = keys.length - 1;
+
+    for (int index = hash & mask; ; index = (index + 1) & mask) {
+      Object existing = keys[index];
+
+      if (existing == null) {
+        return -1;
+      }
+
+      if (existing != TOMBSTONE && hashes[index] == hash && matches(existing, key)) {
+        return index;
+      }
+    }
+  }
+
+  private void adjustCapacity(int capacity) {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    int mask = capacity - 1;
+
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    hashes = new int[capacity];
+    count = 0;
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == null || oldKeys[i] == TOMBSTONE) {
+        continue;
+      }
+
+      int index = oldHashes[i] & mask;
+
+      while (keys[index] != null) {
+        index = (index + 1) & mask;
+      }
+
+      keys[index] = oldKeys[i];
+      values[index] = oldValues[i];
+      hashes[index] = oldHashes[i];
+      count++;
+    }
+  }
+
+  private LoxList collect(boolean collectKeys) {
+    LoxList result = new LoxList(size);
+
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null && keys[i] != TOMBSTONE) {
+        result.add(collectKeys ? keys[i] : values[i]);
+      }
+    }
+
+    return result;
+  }
+
+  private static Object checkKey(Object key) {
+    if (key == null) {
+      throw new NativeError("Map keys cannot be nil.");
+    }
+
+    return key;
+  }
+
+  private static int hash(Object key) {
+    int hash = key.hashCode();
+
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean matches(Object existing, Object key) {
+    if (existing == key) {
+      return true;
+    }
+
+    if (existing instanceof String) {
+      return key instanceof String && existing.equals(key);
+    }
+
+    if (existing instanceof Double) {
+      return key instanceof Double && existing.equals(key);
+    }
+
+    return existing.equals(key);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    boolean first = true;
+
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == null || keys[i] == TOMBSTONE) {
+        continue;
+      }
+
+      if (!first) {
+        builder.append(", ");
+      }
+
+      builder.append(new StringRendering(keys[i])).append(": ").append(new StringRendering(values[i]));
+      first = false;
+    }
+
+    return builder.append("}").toString();
+  }
+}
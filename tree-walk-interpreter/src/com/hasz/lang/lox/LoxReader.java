@@ -0,0 +1,118 @@
+package com.hasz.lang.lox;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+class LoxReader extends NativeInstance {
+  static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  static final NativeClass<LoxReader> CLASS = new NativeClass<LoxReader>("Reader", interpreter -> {
+    throw new NativeError("Readers are created with lines(), open() or stdin().");
+  })
+    .method("next", (interpreter, self) -> self.nextLine())
+    .method("chunk", (interpreter, self, size) -> self.nextChunk(Natives.integer(size, "chunk size")))
+    .method("close", (interpreter, self) -> {
+      self.close();
+
+      return null;
+    });
+
+  private final String name;
+  private final BufferedReader reader;
+  private final boolean closeable;
+  private boolean closed = false;
+
+  LoxReader(String name, ReadableByteChannel channel, int bufferSize, boolean closeable) {
+    this.name = name;
+    this.reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), bufferSize), bufferSize);
+    this.closeable = closeable;
+  }
+
+  @Override
+  NativeClass<?> nativeClass() {
+    return CLASS;
+  }
+
+  synchronized String nextLine() {
+    if (closed) {
+      return null;
+    }
+
+    try {
+      String line = reader.readLine();
+
+      if (line == null) {
+        close();
+      }
+
+      return line;
+    } catch (IOException error) {
+      throw new NativeError("Could not read " + name + ": " + error.getMessage());
+    }
+  }
+
+  private synchronized String nextChunk(int size) {
+    if (size <= 0) {
+      throw new NativeError("Expected chunk size to be positive.");
+    }
+
+    if (closed) {
+      return null;
+    }
+
+    try {
+      char[] buffer = new char[size];
+      int count = 0;
+
+      while (count < size) {
+        int read = reader.read(buffer, count, size - count);
+
+        if (read < 0) {
+          break;
+        }
+
+        count += read;
+      }
+
+      if (count == 0) {
+        close();
+
+        return null;
+      }
+
+      return new String(buffer, 0, count);
+    } catch (IOException error) {
+      throw new NativeError("Could not read " + name + ": " + error.getMessage());
+    }
+  }
+
+  synchronized boolean isClosed() {
+    return closed;
+  }
+
+  synchronized void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    if (!closeable) {
+      return;
+    }
+
+    try {
+      reader.close();
+    } catch (IOException error) {
+      throw new NativeError("Could not close " + name + ": " + error.getMessage());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<reader " + name + ">";
+  }
+}
@@ -0,0 +1,233 @@
+package com.hasz.lang.lox;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+class LoxScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+  private final LoxScriptEngineFactory factory;
+  private final LruCache<String, Program> cache;
+  private final Context context = new Context();
+
+  LoxScriptEngine(LoxScriptEngineFactory factory, LruCache<String, Program> cache) {
+    this.factory = factory;
+    this.cache = cache;
+  }
+
+  @Override
+  public Object eval(String script, ScriptContext scriptContext) throws ScriptException {
+    return execute(compileProgram(script), scriptContext);
+  }
+
+  @Override
+  public Object eval(Reader reader, ScriptContext scriptContext) throws ScriptException {
+    return eval(read(reader), scriptContext);
+  }
+
+  @Override
+  public CompiledScript compile(String script) throws ScriptException {
+    return new LoxCompiledScript(this, compileProgram(script));
+  }
+
+  @Override
+  public CompiledScript compile(Reader reader) throws ScriptException {
+    return compile(read(reader));
+  }
+
+  @Override
+  public Object invokeFunction(String name, Object... arguments) throws ScriptException, NoSuchMethodException {
+    Object function = context.global(name);
+
+    if (!(function instanceof LoxCallable)) {
+      throw new NoSuchMethodException(name);
+    }
+
+    return call((LoxCallable) function, arguments);
+  }
+
+  @Override
+  public Object invokeMethod(Object object, String name, Object... arguments) throws ScriptException, NoSuchMethodException {
+    if (!(object instanceof LoxInstance)) {
+      throw new IllegalArgumentException("Can only invoke methods on Lox instances.");
+    }
+
+    Object method;
+
+    try {
+      method = ((LoxInstance) object).get(new Token(TokenType.IDENTIFIER, name, null, 0));
+    } catch (RuntimeError error) {
+      throw new NoSuchMethodException(name);
+    }
+
+    if (!(method instanceof LoxCallable)) {
+      throw new NoSuchMethodException(name);
+    }
+
+    return call((LoxCallable) method, arguments);
+  }
+
+  @Override
+  public <T> T getInterface(Class<T> type) {
+    return proxy(type, null);
+  }
+
+  @Override
+  public <T> T getInterface(Object object, Class<T> type) {
+    if (!(object instanceof LoxInstance)) {
+      throw new IllegalArgumentException("Can only implement interfaces with Lox instances.");
+    }
+
+    return proxy(type, object);
+  }
+
+  @Override
+  public Bindings createBindings() {
+    return new SimpleBindings();
+  }
+
+  @Override
+  public ScriptEngineFactory getFactory() {
+    return factory;
+  }
+
+  Object execute(Program program, ScriptContext scriptContext) throws ScriptException {
+    importBindings(scriptContext.getBindings(ScriptContext.GLOBAL_SCOPE));
+    importBindings(scriptContext.getBindings(ScriptContext.ENGINE_SCOPE));
+    context.redirect(scriptContext.getWriter(), FlushPolicy.EXIT);
+
+    Result result = context.execute(program);
+    Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+
+    if (bindings != null) {
+      bindings.putAll(context.globals());
+    }
+
+    if (result.hasError()) {
+      throw new ScriptException(result.error());
+    }
+
+    return result.value();
+  }
+
+  private Program compileProgram(String script) throws ScriptException {
+    Program program = cache.get(script, Program::compile);
+
+    if (program.hasErrors()) {
+      throw new ScriptException(String.join("\n", program.errors()));
+    }
+
+    return program;
+  }
+
+  private Object call(LoxCallable function, Object[] arguments) throws ScriptException {
+    Object[] values = arguments != null ? new Object[arguments.length] : LoxCallable.NO_ARGUMENTS;
+
+    for (int i = 0; i < values.length; i++) {
+      values[i] = toLox(arguments[i]);
+    }
+
+    if (values.length != function.arity()) {
+      throw new ScriptException("Expected " + function.arity() + " arguments but got " + values.length + ".");
+    }
+
+    Result result = context.call(function, values);
+
+    context.flush();
+
+    if (result.hasError()) {
+      throw new ScriptException(result.error());
+    }
+
+    return result.value();
+  }
+
+  private void importBindings(Bindings bindings) {
+    if (bindings == null) {
+      return;
+    }
+
+    for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+      if (!binding.getKey().startsWith("javax.script.")) {
+        context.define(binding.getKey(), toLox(binding.getValue()));
+      }
+    }
+  }
+
+  private <T> T proxy(Class<T> type, Object object) {
+    if (type == null || !type.isInterface()) {
+      throw new IllegalArgumentException("Expected an interface type.");
+    }
+
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (instance, method, arguments) -> {
+      if (method.getDeclaringClass() == Object.class) {
+        switch (method.getName()) {
+          case "equals": return instance == arguments[0];
+          case "hashCode": return System.identityHashCode(instance);
+          default: return type.getName() + " implemented by " + (object != null ? object : this);
+        }
+      }
+
+      if (object != null) {
+        return invokeMethod(object, method.getName(), arguments);
+      } else {
+        return invokeFunction(method.getName(), arguments);
+      }
+    });
+
+    return type.cast(proxy);
+  }
+
+  private static Object toLox(Object value) {
+    if (value instanceof Number && !(value instanceof Double)) {
+      return ((Number) value).doubleValue();
+    }
+
+    return value;
+  }
+
+  private static String read(Reader reader) throws ScriptException {
+    StringBuilder source = new StringBuilder();
+    char[] buffer = new char[8192];
+
+    try {
+      for (int count; (count = reader.read(buffer)) != -1; ) {
+        source.append(buffer, 0, count);
+      }
+    } catch (IOException error) {
+      throw new ScriptException(error);
+    }
+
+    return source.toString();
+  }
+
+  private static class LoxCompiledScript extends CompiledScript {
+    private final LoxScriptEngine engine;
+    private final Program program;
+
+    LoxCompiledScript(LoxScriptEngine engine, Program program) {
+      this.engine = engine;
+      this.program = program;
+    }
+
+    @Override
+    public Object eval(ScriptContext scriptContext) throws ScriptException {
+      return engine.execute(program, scriptContext);
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+      return engine;
+    }
+  }
+}
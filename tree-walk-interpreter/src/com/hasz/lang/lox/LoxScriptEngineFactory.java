@@ -0,0 +1,85 @@
+package com.hasz.lang.lox;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+public class LoxScriptEngineFactory implements ScriptEngineFactory {
+  static final int CACHE_CAPACITY = 256;
+
+  private final LruCache<String, Program> cache = new LruCache<>(CACHE_CAPACITY);
+
+  @Override
+  public String getEngineName() {
+    return "jlox";
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public List<String> getExtensions() {
+    return Arrays.asList("lox");
+  }
+
+  @Override
+  public List<String> getMimeTypes() {
+    return Arrays.asList("application/x-lox", "text/x-lox");
+  }
+
+  @Override
+  public List<String> getNames() {
+    return Arrays.asList("lox", "jlox", "Lox");
+  }
+
+  @Override
+  public String getLanguageName() {
+    return "Lox";
+  }
+
+  @Override
+  public String getLanguageVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public Object getParameter(String key) {
+    switch (key) {
+      case ScriptEngine.ENGINE: return getEngineName();
+      case ScriptEngine.ENGINE_VERSION: return getEngineVersion();
+      case ScriptEngine.NAME: return getNames().get(0);
+      case ScriptEngine.LANGUAGE: return getLanguageName();
+      case ScriptEngine.LANGUAGE_VERSION: return getLanguageVersion();
+      default: return null;
+    }
+  }
+
+  @Override
+  public String getMethodCallSyntax(String object, String method, String... arguments) {
+    return object + "." + method + "(" + String.join(", ", arguments) + ")";
+  }
+
+  @Override
+  public String getOutputStatement(String toDisplay) {
+    return "print \"" + toDisplay + "\";";
+  }
+
+  @Override
+  public String getProgram(String... statements) {
+    StringBuilder program = new StringBuilder();
+
+    for (String statement : statements) {
+      program.append(statement).append(";\n");
+    }
+
+    return program.toString();
+  }
+
+  @Override
+  public ScriptEngine getScriptEngine() {
+    return new LoxScriptEngine(this, cache);
+  }
+}
@@ -0,0 +1,29 @@
+package com.hasz.lang.lox;
+
+class LoxStringBuilder extends NativeInstance {
+  static final NativeClass<LoxStringBuilder> CLASS = new NativeClass<LoxStringBuilder>("StringBuilder", interpreter -> new LoxStringBuilder())
+    .method("append", (interpreter, self, value) -> {
+      self.builder.append(new StringRendering(value));
+
+      return self;
+    })
+    .method("length", (interpreter, self) -> (double) self.builder.length())
+    .method("clear", (interpreter, self) -> {
+      self.builder.setLength(0);
+
+      return self;
+    })
+    .method("toString", (interpreter, self) -> self.builder.toString());
+
+  private final StringBuilder builder = new StringBuilder();
+
+  @Override
+  NativeClass<?> nativeClass() {
+    return CLASS;
+  }
+
+  @Override
+  public String toString() {
+    return builder.toString();
+  }
+}
@@ -0,0 +1,44 @@
+package com.hasz.lang.lox;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+class LruCache<K, V> {
+  private final Map<K, V> entries;
+
+  LruCache(int capacity) {
+    this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  V get(K key, Function<K, V> compute) {
+    V value;
+
+    synchronized (entries) {
+      value = entries.get(key);
+    }
+
+    if (value != null) {
+      return value;
+    }
+
+    value = compute.apply(key);
+
+    synchronized (entries) {
+      entries.put(key, value);
+    }
+
+    return value;
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+}
@@ -1,113 +1,192 @@
 package com.hasz.lang.lox;
 
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public class Main {
-  private static final Interpreter interpreter = new Interpreter();
-  private static final AstPrinter printer = new AstPrinter();
+  private static final String USAGE = "Usage: jlox [--stackless] [--max-depth=<n>] [--compiled] [--tiered[=<threshold>]] [--bytecode] [--types] [script] | jlox (-n|-p) [--record=<fn>] script [input...] | jlox --daemon=<socket>";
 
-  static ParseError parseError = null;
-  static RuntimeError runtimeError = null;
+  private static Context context = new Context();
 
   public static void main(String[] args) throws IOException {
-    if (args.length > 1) {
-      System.out.println("Usage: jlox [script]");
+    List<String> scripts = new ArrayList<>();
+    boolean perRecord = false;
+    boolean printRecords = false;
+    boolean typeReport = false;
+    String recordFunction = "record";
+
+    for (String arg : args) {
+      if (arg.equals("-n")) {
+        perRecord = true;
+      } else if (arg.equals("-p")) {
+        perRecord = true;
+        printRecords = true;
+      } else if (arg.startsWith("--daemon=")) {
+        new Daemon(Paths.get(arg.substring("--daemon=".length()))).serve();
+
+        return;
+      } else if (arg.startsWith("--record=")) {
+        recordFunction = arg.substring("--record=".length());
+      } else if (arg.equals("--stackless")) {
+        context = Context.stackless(StacklessInterpreter.DEFAULT_MAX_DEPTH);
+      } else if (arg.equals("--compiled")) {
+        context = Context.compiled();
+      } else if (arg.equals("--types")) {
+        typeReport = true;
+      } else if (arg.equals("--bytecode")) {
+        context = Context.bytecode();
+      } else if (arg.equals("--tiered")) {
+        context = Context.tiered(TieredInterpreter.DEFAULT_THRESHOLD);
+      } else if (arg.startsWith("--tiered=")) {
+        context = Context.tiered(Integer.parseInt(arg.substring("--tiered=".length())));
+      } else if (arg.startsWith("--max-depth=")) {
+        context = Context.stackless(Integer.parseInt(arg.substring("--max-depth=".length())));
+      } else {
+        scripts.add(arg);
+      }
+    }
+
+    if (perRecord && !scripts.isEmpty()) {
+      runRecords(scripts.get(0), scripts.subList(1, scripts.size()), recordFunction, printRecords);
+    } else if (perRecord || scripts.size() > 1) {
+      System.out.println(USAGE);
       System.exit(64);
-    } else if (args.length == 1) {
-      runFile(args[0]);
+    } else if (scripts.size() == 1) {
+      runFile(scripts.get(0), typeReport);
     } else {
       runPrompt();
     }
   }
 
-  private static void runFile(String path) throws IOException {
+  private static void runFile(String path, boolean typeReport) throws IOException {
     byte[] bytes = Files.readAllBytes(Paths.get(path));
+    Program program = Program.compile(new String(bytes, Charset.defaultCharset()));
 
-    run(new String(bytes, Charset.defaultCharset()));
+    if (program.hasErrors()) {
+      exit(String.join("\n", program.errors()), 65);
+    }
 
-    if (parseError != null) {
-      System.exit(65);
+    if (typeReport) {
+      for (String line : program.typeReport()) {
+        System.err.println(line);
+      }
     }
 
-    if (runtimeError != null) {
-      System.exit(70);
+    Result result = context.execute(program);
+
+    if (result.hasError()) {
+      exit(result.error(), 70);
     }
   }
 
-  private static void runPrompt() throws IOException {
-    InputStreamReader input = new InputStreamReader(System.in);
-    BufferedReader reader = new BufferedReader(input);
-
-    for (;;) {
-      System.out.print("\uD83E\uDD6F > ");
+  private static void runRecords(String path, List<String> inputs, String functionName, boolean printResults) throws IOException {
+    byte[] bytes = Files.readAllBytes(Paths.get(path));
+    Program program = Program.compile(new String(bytes, Charset.defaultCharset()));
 
-      String line = reader.readLine();
+    if (program.hasErrors()) {
+      exit(String.join("\n", program.errors()), 65);
+    }
 
-      if (line == null) break;
+    context.redirect(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)), FlushPolicy.EXIT, 1 << 16);
 
-      StringRendering lastStatement = new StringRendering(run(line));
+    try {
+      Result result = context.execute(program);
 
-      if (parseError != null) {
-        report(parseError);
-      } else if (runtimeError != null) {
-        report(runtimeError);
-      } else {
-        System.out.println("  => " + lastStatement);
+      if (result.hasError()) {
+        exit(result.error(), 70);
       }
 
-      parseError = null;
-      runtimeError = null;
-    }
-  }
+      Object function = context.global(functionName);
 
-  private static Object run(String source) {
-    Scanner scanner = new Scanner(source);
-    List<Token> tokens = scanner.scanTokens();
-    Parser parser = new Parser(tokens);
-    List<Stmt> statements = parser.parse();
-    Resolver resolver = new Resolver(interpreter);
+      if (!(function instanceof LoxCallable) || ((LoxCallable) function).arity() != 1) {
+        System.err.println("Expected a global function '" + functionName + "' taking one record.");
+        System.exit(64);
+      }
 
-    if (parseError != null) {
-      return null;
-    }
+      if (inputs.isEmpty()) {
+        processRecords(context.stdin(), (LoxCallable) function, printResults);
+      }
 
-    resolver.resolve(statements);
+      for (String input : inputs) {
+        FileChannel channel = FileChannel.open(Paths.get(input), StandardOpenOption.READ);
+        LoxReader reader = new LoxReader(input, channel, LoxReader.DEFAULT_BUFFER_SIZE, true);
 
-    if (parseError != null) {
-      return null;
+        try {
+          processRecords(reader, (LoxCallable) function, printResults);
+        } finally {
+          reader.close();
+        }
+      }
+    } catch (NativeError error) {
+      exit(error.getMessage(), 70);
     }
 
-    return interpreter.interpret(statements);
+    context.flush();
   }
 
-  static void error(int line, String message) {
-    parseError = new ParseError(line, message);
-  }
+  private static void processRecords(LoxReader reader, LoxCallable function, boolean printResults) {
+    for (String record; (record = reader.nextLine()) != null; ) {
+      Result result = context.call(function, new Object[] { record });
 
-  static void error(Token token, String message) {
-    parseError = new ParseError(token, message);
+      if (result.hasError()) {
+        exit(result.error(), 70);
+      }
+
+      if (printResults && result.value() != null) {
+        context.print(result.value());
+      }
+    }
   }
 
-  private static void report(RuntimeError error) {
-    printError(error.getMessage() + "\n[line " + error.token.line + "]");
+  private static void exit(String message, int status) {
+    context.flush();
+    System.err.println(message);
+    System.exit(status);
   }
 
-  private static void report(ParseError error) {
-    printError(error.getMessage());
+  private static void runPrompt() throws IOException {
+    InputStreamReader input = new InputStreamReader(System.in);
+    BufferedReader reader = new BufferedReader(input);
+
+    for (;;) {
+      System.out.print("\uD83E\uDD6F > ");
+
+      String line = reader.readLine();
+
+      if (line == null) break;
+
+      Program program = Program.compile(line);
+
+      if (program.hasErrors()) {
+        for (String error : program.errors()) {
+          printError(error);
+        }
+
+        continue;
+      }
+
+      Result result = context.execute(program);
+
+      if (result.hasError()) {
+        printError(result.error());
+      } else {
+        System.out.println("  => " + result);
+      }
+    }
   }
 
   private static void printError(String message) {
     System.out.println("\u001B[31m" + message + "\u001B[0m");
   }
-
-  public static void runtimeError(RuntimeError error) {
-    runtimeError = error;
-  }
 }
@@ -0,0 +1,133 @@
+package com.hasz.lang.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class NativeClass<T extends NativeInstance> implements LoxCallable {
+  interface Method<T> {
+    NativeFunction.Body bind(T self);
+  }
+
+  interface Method0<T> extends Method<T> {
+    Object call(Interpreter interpreter, T self);
+
+    @Override
+    default NativeFunction.Body bind(T self) {
+      return (NativeFunction.Body0) interpreter -> call(interpreter, self);
+    }
+  }
+
+  interface Method1<T> extends Method<T> {
+    Object call(Interpreter interpreter, T self, Object a);
+
+    @Override
+    default NativeFunction.Body bind(T self) {
+      return (NativeFunction.Body1) (interpreter, a) -> call(interpreter, self, a);
+    }
+  }
+
+  interface Method2<T> extends Method<T> {
+    Object call(Interpreter interpreter, T self, Object a, Object b);
+
+    @Override
+    default NativeFunction.Body bind(T self) {
+      return (NativeFunction.Body2) (interpreter, a, b) -> call(interpreter, self, a, b);
+    }
+  }
+
+  private static class Entry<T> {
+    final int index;
+    final int arity;
+    final Method<T> body;
+
+    Entry(int index, int arity, Method<T> body) {
+      this.index = index;
+      this.arity = arity;
+      this.body = body;
+    }
+  }
+
+  final String name;
+  private final int arity;
+  private final NativeFunction.Body constructor;
+  private final Map<String, Entry<T>> methods = new HashMap<>();
+
+  private NativeClass(String name, int arity, NativeFunction.Body constructor) {
+    this.name = name;
+    this.arity = arity;
+    this.constructor = constructor;
+  }
+
+  NativeClass(String name, NativeFunction.Body0 constructor) {
+    this(name, 0, constructor);
+  }
+
+  NativeClass(String name, NativeFunction.Body1 constructor) {
+    this(name, 1, constructor);
+  }
+
+  NativeClass<T> method(String name, Method0<T> body) {
+    return method(name, 0, body);
+  }
+
+  NativeClass<T> method(String name, Method1<T> body) {
+    return method(name, 1, body);
+  }
+
+  NativeClass<T> method(String name, Method2<T> body) {
+    return method(name, 2, body);
+  }
+
+  private NativeClass<T> method(String name, int arity, Method<T> body) {
+    methods.put(name, new Entry<>(methods.size(), arity, body));
+
+    return this;
+  }
+
+  @SuppressWarnings("unchecked")
+  Object bind(NativeInstance instance, Token name) {
+    Entry<T> method = methods.get(name.lexeme);
+
+    if (method == null) {
+      throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+    }
+
+    if (instance.bound == null) {
+      instance.bound = new NativeFunction[methods.size()];
+    }
+
+    NativeFunction bound = instance.bound[method.index];
+
+    if (bound == null) {
+      bound = new NativeFunction(name.lexeme, method.arity, method.body.bind((T) instance));
+      instance.bound[method.index] = bound;
+    }
+
+    return bound;
+  }
+
+  @Override
+  public int arity() {
+    return arity;
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return constructor.call(interpreter, arguments);
+  }
+
+  @Override
+  public Object call0(Interpreter interpreter) {
+    return constructor.call0(interpreter);
+  }
+
+  @Override
+  public Object call1(Interpreter interpreter, Object a) {
+    return constructor.call1(interpreter, a);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
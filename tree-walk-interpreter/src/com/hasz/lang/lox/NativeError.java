@@ -0,0 +1,7 @@
+package com.hasz.lang.lox;
+
+class NativeError extends RuntimeException {
+  NativeError(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,124 @@
+package com.hasz.lang.lox;
+
+class NativeFunction implements LoxCallable {
+  interface Body {
+    Object call(Interpreter interpreter, Object[] arguments);
+
+    default Object call0(Interpreter interpreter) {
+      return call(interpreter, NO_ARGUMENTS);
+    }
+
+    default Object call1(Interpreter interpreter, Object a) {
+      return call(interpreter, new Object[] { a });
+    }
+
+    default Object call2(Interpreter interpreter, Object a, Object b) {
+      return call(interpreter, new Object[] { a, b });
+    }
+
+    default Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+      return call(interpreter, new Object[] { a, b, c });
+    }
+  }
+
+  interface Body0 extends Body {
+    @Override
+    Object call0(Interpreter interpreter);
+
+    @Override
+    default Object call(Interpreter interpreter, Object[] arguments) {
+      return call0(interpreter);
+    }
+  }
+
+  interface Body1 extends Body {
+    @Override
+    Object call1(Interpreter interpreter, Object a);
+
+    @Override
+    default Object call(Interpreter interpreter, Object[] arguments) {
+      return call1(interpreter, arguments[0]);
+    }
+  }
+
+  interface Body2 extends Body {
+    @Override
+    Object call2(Interpreter interpreter, Object a, Object b);
+
+    @Override
+    default Object call(Interpreter interpreter, Object[] arguments) {
+      return call2(interpreter, arguments[0], arguments[1]);
+    }
+  }
+
+  interface Body3 extends Body {
+    @Override
+    Object call3(Interpreter interpreter, Object a, Object b, Object c);
+
+    @Override
+    default Object call(Interpreter interpreter, Object[] arguments) {
+      return call3(interpreter, arguments[0], arguments[1], arguments[2]);
+    }
+  }
+
+  final String name;
+  private final int arity;
+  private final Body body;
+
+  NativeFunction(String name, int arity, Body body) {
+    this.name = name;
+    this.arity = arity;
+    this.body = body;
+  }
+
+  NativeFunction(String name, Body0 body) {
+    this(name, 0, body);
+  }
+
+  NativeFunction(String name, Body1 body) {
+    this(name, 1, body);
+  }
+
+  NativeFunction(String name, Body2 body) {
+    this(name, 2, body);
+  }
+
+  NativeFunction(String name, Body3 body) {
+    this(name, 3, body);
+  }
+
+  @Override
+  public int arity() {
+    return arity;
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return body.call(interpreter, arguments);
+  }
+
+  @Override
+  public Object call0(Interpreter interpreter) {
+    return body.call0(interpreter);
+  }
+
+  @Override
+  public Object call1(Interpreter interpreter, Object a) {
+    return body.call1(interpreter, a);
+  }
+
+  @Override
+  public Object call2(Interpreter interpreter, Object a, Object b) {
+    return body.call2(interpreter, a, b);
+  }
+
+  @Override
+  public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+    return body.call3(interpreter, a, b, c);
+  }
+
+  @Override
+  public String toString() {
+    return "<native fn>";
+  }
+}
@@ -0,0 +1,16 @@
+package com.hasz.lang.lox;
+
+abstract class NativeInstance {
+  NativeFunction[] bound = null;
+
+  abstract NativeClass<?> nativeClass();
+
+  Object get(Token name) {
+    return nativeClass().bind(this, name);
+  }
+
+  @Override
+  public String toString() {
+    return nativeClass().name + " instance";
+  }
+}
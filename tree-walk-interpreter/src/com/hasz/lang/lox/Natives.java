@@ -0,0 +1,80 @@
+package com.hasz.lang.lox;
+
+class Natives {
+  private Natives() { }
+
+  static void define(Environment globals) {
+    globals.define("clock", new NativeFunction("clock", interpreter ->
+      (double) System.currentTimeMillis() / 1000.0
+    ));
+    globals.define("List", LoxList.CLASS);
+    globals.define("DoubleArray", DoubleArray.CLASS);
+    globals.define("Map", LoxMap.CLASS);
+
+    StringNatives.define(globals);
+    RegexNatives.define(globals);
+    IoNatives.define(globals);
+
+    globals.define("stats", new NativeFunction("stats", interpreter ->
+      interpreter.statistics.toMap()
+    ));
+  }
+
+  static double number(Object value, String name) {
+    if (!(value instanceof Double)) {
+      throw new NativeError("Expected " + name + " to be a number.");
+    }
+
+    return (double) value;
+  }
+
+  static int integer(Object value, String name) {
+    double number = number(value, name);
+
+    if (number != (int) number) {
+      throw new NativeError("Expected " + name + " to be an integer.");
+    }
+
+    return (int) number;
+  }
+
+  static int index(Object value, int size) {
+    int index = integer(value, "index");
+
+    if (index < 0 || index >= size) {
+      throw new NativeError("Index " + index + " out of bounds for length " + size + ".");
+    }
+
+    return index;
+  }
+
+  static String string(Object value, String name) {
+    if (!(value instanceof String)) {
+      throw new NativeError("Expected " + name + " to be a string.");
+    }
+
+    return (String) value;
+  }
+
+  static LoxCallable callable(Object value, int arity) {
+    if (!(value instanceof LoxCallable)) {
+      throw new NativeError("Can only call functions and classes.");
+    }
+
+    LoxCallable function = (LoxCallable) value;
+
+    if (function.arity() != arity) {
+      throw new NativeError("Expected a function of " + arity + " arguments but got " + function.arity() + ".");
+    }
+
+    return function;
+  }
+
+  static Object call(Interpreter interpreter, LoxCallable function, Object argument) {
+    return function.call1(interpreter, argument);
+  }
+
+  static Object call(Interpreter interpreter, LoxCallable function, Object first, Object second) {
+    return function.call2(interpreter, first, second);
+  }
+}
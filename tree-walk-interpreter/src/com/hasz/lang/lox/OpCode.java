@@ -0,0 +1,82 @@
+package com.hasz.lang.lox;
+
+final class OpCode {
+  static final byte CONSTANT = 0;
+  static final byte NIL = 1;
+  static final byte TRUE = 2;
+  static final byte FALSE = 3;
+  static final byte POP = 4;
+  static final byte GET_LOCAL = 5;
+  static final byte SET_LOCAL = 6;
+  static final byte GET_GLOBAL = 7;
+  static final byte DEFINE_GLOBAL = 8;
+  static final byte SET_GLOBAL = 9;
+  static final byte GET_UPVALUE = 10;
+  static final byte SET_UPVALUE = 11;
+  static final byte GET_PROPERTY = 12;
+  static final byte SET_PROPERTY = 13;
+  static final byte GET_SUPER = 14;
+  static final byte EQUAL = 15;
+  static final byte NOT_EQUAL = 16;
+  static final byte GREATER = 17;
+  static final byte GREATER_EQUAL = 18;
+  static final byte LESS = 19;
+  static final byte LESS_EQUAL = 20;
+  static final byte ADD = 21;
+  static final byte SUBTRACT = 22;
+  static final byte MULTIPLY = 23;
+  static final byte DIVIDE = 24;
+  static final byte NOT = 25;
+  static final byte NEGATE = 26;
+  static final byte PRINT = 27;
+  static final byte JUMP = 28;
+  static final byte JUMP_IF_FALSE = 29;
+  static final byte LOOP = 30;
+  static final byte CALL = 31;
+  static final byte TAIL_CALL = 32;
+  static final byte CLOSURE = 33;
+  static final byte CLOSE_UPVALUES = 34;
+  static final byte RETURN = 35;
+  static final byte CLASS = 36;
+  static final byte INHERIT = 37;
+  static final byte METHOD = 38;
+  static final byte CLEAR_LOCALS = 39;
+
+  private OpCode() { }
+
+  static int stackEffect(byte op) {
+    switch (op) {
+      case CONSTANT:
+      case NIL:
+      case TRUE:
+      case FALSE:
+      case GET_LOCAL:
+      case GET_GLOBAL:
+      case GET_UPVALUE:
+      case CLOSURE:
+      case CLASS:
+        return 1;
+      case POP:
+      case DEFINE_GLOBAL:
+      case SET_PROPERTY:
+      case GET_SUPER:
+      case EQUAL:
+      case NOT_EQUAL:
+      case GREATER:
+      case GREATER_EQUAL:
+      case LESS:
+      case LESS_EQUAL:
+      case ADD:
+      case SUBTRACT:
+      case MULTIPLY:
+      case DIVIDE:
+      case PRINT:
+      case RETURN:
+      case INHERIT:
+      case METHOD:
+        return -1;
+      default:
+        return 0;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.hasz.lang.lox;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+class OutputSink {
+  static final int DEFAULT_THRESHOLD = 8192;
+
+  private final Writer writer;
+  private final FlushPolicy policy;
+  private final int threshold;
+  private final StringBuilder buffer = new StringBuilder();
+
+  OutputSink(Writer writer, FlushPolicy policy, int threshold) {
+    this.writer = writer;
+    this.policy = policy;
+    this.threshold = threshold;
+  }
+
+  static OutputSink standard() {
+    return new OutputSink(new OutputStreamWriter(System.out), FlushPolicy.THRESHOLD, DEFAULT_THRESHOLD);
+  }
+
+  void println(Object value) {
+    buffer.append(StringRendering.render(value)).append('\n');
+
+    if (policy == FlushPolicy.NEWLINE) {
+      flush();
+    } else if (buffer.length() >= threshold) {
+      drain(policy == FlushPolicy.THRESHOLD);
+    }
+  }
+
+  void flush() {
+    drain(true);
+  }
+
+  private void drain(boolean flushWriter) {
+    try {
+      writer.append(buffer);
+      buffer.setLength(0);
+
+      if (flushWriter) {
+        writer.flush();
+      }
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+}
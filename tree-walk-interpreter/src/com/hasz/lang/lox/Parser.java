@@ -6,13 +6,13 @@ import java.util.ArrayList;
 import static com.hasz.lang.lox.TokenType.*;
 
 class Parser {
-  private static class ParseError extends RuntimeException { }
-
   private final List<Token> tokens;
+  private final List<ParseError> errors;
   private int current = 0;
 
-  Parser(List<Token> tokens) {
+  Parser(List<Token> tokens, List<ParseError> errors) {
     this.tokens = tokens;
+    this.errors = errors;
   }
 
   List<Stmt> parse() {
@@ -484,9 +484,11 @@ class Parser {
   }
 
   private ParseError error(Token token, String message) {
-    Main.error(token, message);
+    ParseError error = new ParseError(token, message);
+
+    errors.add(error);
 
-    return new ParseError();
+    return error;
   }
 
   private void synchronize() {
@@ -0,0 +1,6 @@
+package com.hasz.lang.lox;
+
+class Profile {
+  int count = 0;
+  ClosureCompiler.Code code = null;
+}
@@ -0,0 +1,70 @@
+package com.hasz.lang.lox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class Program {
+  final List<Stmt> statements;
+  final int slots;
+  final String[] globals;
+  final int sites;
+  private final TypeInference types;
+  private final List<ParseError> errors;
+
+  private Program(List<Stmt> statements, int slots, String[] globals, int sites, TypeInference types, List<ParseError> errors) {
+    this.statements = Collections.unmodifiableList(statements);
+    this.slots = slots;
+    this.globals = globals;
+    this.sites = sites;
+    this.types = types;
+    this.errors = Collections.unmodifiableList(errors);
+  }
+
+  public static Program compile(String source) {
+    List<ParseError> errors = new ArrayList<>();
+    List<Token> tokens = new Scanner(source, errors).scanTokens();
+    List<Stmt> statements = new Parser(tokens, errors).parse();
+    int slots = 0;
+    String[] globals = new String[0];
+    int sites = 0;
+    TypeInference types = new TypeInference();
+
+    if (errors.isEmpty()) {
+      Resolver resolver = new Resolver(errors);
+
+      resolver.resolve(statements);
+      slots = resolver.slots();
+      globals = resolver.globals();
+      sites = resolver.sites();
+    }
+
+    if (errors.isEmpty()) {
+      types.infer(statements);
+    }
+
+    return new Program(statements, slots, globals, sites, types, errors);
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  public List<String> errors() {
+    List<String> messages = new ArrayList<>();
+
+    for (ParseError error : errors) {
+      messages.add(error.getMessage());
+    }
+
+    return messages;
+  }
+
+  void count(Statistics statistics) {
+    types.count(statistics);
+  }
+
+  public List<String> typeReport() {
+    return types.report();
+  }
+}
@@ -0,0 +1,77 @@
+package com.hasz.lang.lox;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+class RegexNatives {
+  static final int CACHE_CAPACITY = 256;
+
+  private static final LruCache<String, Pattern> patterns = new LruCache<>(CACHE_CAPACITY);
+
+  private RegexNatives() { }
+
+  static void define(Environment globals) {
+    globals.define("match", new NativeFunction("match", (interpreter, regex, string) ->
+      pattern(interpreter, regex).matcher(Natives.string(string, "string")).matches()
+    ));
+
+    globals.define("find", new NativeFunction("find", (interpreter, regex, string) -> {
+      Matcher matcher = pattern(interpreter, regex).matcher(Natives.string(string, "string"));
+
+      if (!matcher.find()) {
+        return null;
+      }
+
+      LoxList groups = new LoxList(matcher.groupCount() + 1);
+
+      for (int i = 0; i <= matcher.groupCount(); i++) {
+        groups.add(matcher.group(i));
+      }
+
+      return groups;
+    }));
+
+    globals.define("replaceAll", new NativeFunction("replaceAll", (interpreter, regex, string, replacement) -> {
+      Matcher matcher = pattern(interpreter, regex).matcher(Natives.string(string, "string"));
+
+      try {
+        return matcher.replaceAll(Natives.string(replacement, "replacement"));
+      } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+        throw new NativeError("Invalid replacement: " + error.getMessage());
+      }
+    }));
+
+    globals.define("splitRegex", new NativeFunction("splitRegex", (interpreter, regex, string) -> {
+      String[] parts = pattern(interpreter, regex).split(Natives.string(string, "string"), -1);
+      LoxList list = new LoxList(parts.length);
+
+      for (String part : parts) {
+        list.add(part);
+      }
+
+      return list;
+    }));
+  }
+
+  static int cached() {
+    return patterns.size();
+  }
+
+  private static Pattern pattern(Interpreter interpreter, Object value) {
+    String source = Natives.string(value, "pattern");
+    Statistics statistics = interpreter.statistics;
+
+    statistics.regexLookups++;
+
+    try {
+      return patterns.get(source, key -> {
+        statistics.regexMisses++;
+
+        return Pattern.compile(key);
+      });
+    } catch (PatternSyntaxException error) {
+      throw new NativeError("Invalid pattern: " + error.getDescription() + ".");
+    }
+  }
+}
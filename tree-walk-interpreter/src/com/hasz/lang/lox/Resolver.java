@@ -1,18 +1,25 @@
 package com.hasz.lang.lox;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
-  private final Interpreter interpreter;
-  private final Stack<Map<String, Boolean>> scopes = new Stack<>();
+  private final List<ParseError> errors;
+  private final Set<Binding> uninitialized = new HashSet<>();
+  private final Map<String, Integer> globalIndices = new HashMap<>();
+  private int sites = 0;
+  private FunctionScope current = new FunctionScope(null);
   private FunctionType currentFunction = FunctionType.NONE;
   private ClassType currentClass = ClassType.NONE;
 
-  Resolver(Interpreter interpreter) {
-    this.interpreter = interpreter;
+  Resolver(List<ParseError> errors) {
+    this.errors = errors;
   }
 
   private enum FunctionType {
@@ -23,6 +30,49 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     NONE, CLASS, SUBCLASS
   }
 
+  private static class FunctionScope {
+    final FunctionScope enclosing;
+    final Stack<Map<String, Binding>> scopes = new Stack<>();
+    final List<Binding> captures = new ArrayList<>();
+    final Map<Binding, Binding> captured = new IdentityHashMap<>();
+    int slots = 0;
+    int maxSlots = 0;
+
+    FunctionScope(FunctionScope enclosing) {
+      this.enclosing = enclosing;
+    }
+
+    Binding capture(Binding outer) {
+      Binding binding = captured.get(outer);
+
+      if (binding == null) {
+        binding = new Binding(Binding.Kind.CAPTURE, captures.size());
+        captures.add(outer);
+        captured.put(outer, binding);
+      }
+
+      return binding;
+    }
+  }
+
+  int slots() {
+    return current.maxSlots;
+  }
+
+  String[] globals() {
+    String[] names = new String[globalIndices.size()];
+
+    for (Map.Entry<String, Integer> entry : globalIndices.entrySet()) {
+      names[entry.getValue()] = entry.getKey();
+    }
+
+    return names;
+  }
+
+  int sites() {
+    return sites;
+  }
+
   void resolve(List<Stmt> statements) {
     for (Stmt statement : statements) {
       resolve(statement);
@@ -32,7 +82,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   @Override
   public Void visitAssignExpr(Expr.Assign expr) {
     resolve(expr.value);
-    resolveLocal(expr, expr.name);
+    expr.binding = resolveLocal(expr.name.lexeme);
 
     return null;
   }
@@ -53,6 +103,10 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
       resolve(argument);
     }
 
+    if (expr.callee instanceof Expr.Variable && ((Expr.Variable) expr.callee).binding.kind == Binding.Kind.GLOBAL) {
+      expr.site = sites++;
+    }
+
     return null;
   }
 
@@ -81,12 +135,12 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   @Override
   public Void visitThisExpr(Expr.This expr) {
     if (currentClass == ClassType.NONE) {
-      Main.error(expr.keyword, "Cannot use 'this' outside of a class.");
+      errors.add(new ParseError(expr.keyword, "Cannot use 'this' outside of a class."));
 
       return null;
     }
 
-    resolveLocal(expr, expr.keyword);
+    expr.binding = resolveLocal("this");
 
     return null;
   }
@@ -94,18 +148,19 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   @Override
   public Void visitSuperExpr(Expr.Super expr) {
     if (currentClass == ClassType.NONE) {
-      Main.error(expr.keyword, "Cannot use 'super' outside of a class.");
+      errors.add(new ParseError(expr.keyword, "Cannot use 'super' outside of a class."));
 
       return null;
     }
 
     if (currentClass == ClassType.CLASS) {
-      Main.error(expr.keyword, "Cannot use 'super' outside of a class.");
+      errors.add(new ParseError(expr.keyword, "Cannot use 'super' outside of a class."));
 
       return null;
     }
 
-    resolveLocal(expr, expr.keyword);
+    expr.binding = resolveLocal("super");
+    expr.receiver = resolveLocal("this");
 
     return null;
   }
@@ -133,11 +188,11 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
   @Override
   public Void visitVariableExpr(Expr.Variable expr) {
-    if (!scopes.isEmpty() && scopes.peek().get(expr.name.lexeme) == Boolean.FALSE) {
-      Main.error(expr.name, "Cannot read local variable in its own initializer.");
+    if (!current.scopes.isEmpty() && uninitialized.contains(current.scopes.peek().get(expr.name.lexeme))) {
+      errors.add(new ParseError(expr.name, "Cannot read local variable in its own initializer."));
     }
 
-    resolveLocal(expr, expr.name);
+    expr.binding = resolveLocal(expr.name.lexeme);
 
     return null;
   }
@@ -154,7 +209,9 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   public Void visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
     beginScope();
     resolve(stmt.statements);
+    stmt.slotCount = current.scopes.peek().size();
     endScope();
+    stmt.firstSlot = current.slots;
 
     return null;
   }
@@ -171,14 +228,14 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     ClassType enclosingClass = currentClass;
 
     currentClass = ClassType.CLASS;
-    declare(stmt.name);
-    define(stmt.name);
+    stmt.binding = declare(stmt.name.lexeme);
+    define(stmt.binding);
 
     if (stmt.superclass != null) {
       currentClass = ClassType.SUBCLASS;
 
       if (stmt.name.lexeme.equals(stmt.superclass.name.lexeme)) {
-        Main.error(stmt.superclass.name, "A class cannot inherit from itself.");
+        errors.add(new ParseError(stmt.superclass.name, "A class cannot inherit from itself."));
       }
 
       resolve(stmt.superclass);
@@ -186,12 +243,10 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
     if (stmt.superclass != null) {
       beginScope();
-      scopes.peek().put("super", true);
+      stmt.superBinding = declare("super");
+      define(stmt.superBinding);
     }
 
-    beginScope();
-    scopes.peek().put("this", true);
-
     for (Stmt.Function method : stmt.methods) {
       resolveFunction(method, method.name.lexeme.equals("init") ? FunctionType.INITIALIZER : FunctionType.METHOD);
     }
@@ -200,7 +255,6 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
       endScope();
     }
 
-    endScope();
     currentClass = enclosingClass;
 
     return null;
@@ -223,24 +277,28 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   @Override
   public Void visitReturnStmt(Stmt.Return stmt) {
     if (currentFunction == FunctionType.NONE) {
-      Main.error(stmt.keyword, "Cannot return from top-level code.");
+      errors.add(new ParseError(stmt.keyword, "Cannot return from top-level code."));
     }
 
     if (currentFunction == FunctionType.INITIALIZER) {
-      Main.error(stmt.keyword, "Cannot return a value from an initializer.");
+      errors.add(new ParseError(stmt.keyword, "Cannot return a value from an initializer."));
     }
 
     if (stmt.value != null) {
       resolve(stmt.value);
     }
 
+    if (stmt.value instanceof Expr.Call && currentFunction != FunctionType.NONE) {
+      ((Expr.Call) stmt.value).isTailCall = true;
+    }
+
     return null;
   }
 
   @Override
   public Void visitFunctionStmt(Stmt.Function stmt) {
-    declare(stmt.name);
-    define(stmt.name);
+    stmt.binding = declare(stmt.name.lexeme);
+    define(stmt.binding);
 
     resolveFunction(stmt, FunctionType.FUNCTION);
 
@@ -261,13 +319,13 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
   @Override
   public Void visitVarStmt(Stmt.Var stmt) {
-    declare(stmt.name);
+    stmt.binding = declare(stmt.name.lexeme);
 
     if (stmt.initializer != null) {
       resolve(stmt.initializer);
     }
 
-    define(stmt.name);
+    define(stmt.binding);
 
     return null;
   }
@@ -311,53 +369,101 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   }
 
   private void beginScope() {
-    scopes.push(new HashMap<String, Boolean>());
+    current.scopes.push(new HashMap<String, Binding>());
   }
 
   private void endScope() {
-    scopes.pop();
+    current.slots -= current.scopes.pop().size();
   }
 
-  private void declare(Token name) {
-    if (scopes.isEmpty()) {
-      return;
+  private Binding declare(String name) {
+    if (current.scopes.isEmpty()) {
+      return global(name);
+    }
+
+    Map<String, Binding> scope = current.scopes.peek();
+    Binding binding = scope.get(name);
+
+    if (binding == null) {
+      binding = new Binding(Binding.Kind.LOCAL, current.slots++);
+      current.maxSlots = Math.max(current.maxSlots, current.slots);
+      scope.put(name, binding);
     }
 
-    Map<String, Boolean> scope = scopes.peek();
+    uninitialized.add(binding);
 
-    scope.put(name.lexeme, false);
+    return binding;
   }
 
-  private void define(Token name) {
-    if (scopes.isEmpty()) {
-      return;
+  private Binding global(String name) {
+    Integer index = globalIndices.get(name);
+
+    if (index == null) {
+      index = globalIndices.size();
+      globalIndices.put(name, index);
     }
 
-    scopes.peek().put(name.lexeme, true);
+    return new Binding(Binding.Kind.GLOBAL, index);
   }
 
-  private void resolveLocal(Expr expr, Token name) {
-    for (int i = scopes.size() - 1; i >= 0; i--) {
-      if (scopes.get(i).containsKey(name.lexeme)) {
-        interpreter.resolve(expr, scopes.size() - 1 - i);
+  private void define(Binding binding) {
+    uninitialized.remove(binding);
+  }
+
+  private Binding resolveLocal(String name) {
+    return resolveIn(current, name);
+  }
 
-        return;
+  private Binding resolveIn(FunctionScope function, String name) {
+    for (int i = function.scopes.size() - 1; i >= 0; i--) {
+      Binding binding = function.scopes.get(i).get(name);
+
+      if (binding != null) {
+        return binding;
       }
     }
+
+    if (function.enclosing == null) {
+      return global(name);
+    }
+
+    Binding outer = resolveIn(function.enclosing, name);
+
+    if (outer.kind == Binding.Kind.GLOBAL) {
+      return outer;
+    }
+
+    if (outer.kind == Binding.Kind.LOCAL) {
+      outer.kind = Binding.Kind.CELL;
+    }
+
+    return function.capture(outer);
   }
+
   private void resolveFunction(Stmt.Function function, FunctionType type) {
     FunctionType enclosingFunction = currentFunction;
 
     currentFunction = type;
+    current = new FunctionScope(current);
     beginScope();
 
-    for (Token param : function.params) {
-      declare(param);
-      define(param);
+    if (type == FunctionType.METHOD || type == FunctionType.INITIALIZER) {
+      function.receiver = declare("this");
+      define(function.receiver);
+    }
+
+    function.parameters = new Binding[function.params.size()];
+
+    for (int i = 0; i < function.parameters.length; i++) {
+      function.parameters[i] = declare(function.params.get(i).lexeme);
+      define(function.parameters[i]);
     }
 
     resolve(function.body);
     endScope();
+    function.slots = current.maxSlots;
+    function.captures = current.captures.toArray(new Binding[0]);
+    current = current.enclosing;
     currentFunction = enclosingFunction;
   }
 }
@@ -0,0 +1,28 @@
+package com.hasz.lang.lox;
+
+public final class Result {
+  private final Object value;
+  private final String error;
+
+  Result(Object value, String error) {
+    this.value = value;
+    this.error = error;
+  }
+
+  public Object value() {
+    return value;
+  }
+
+  public boolean hasError() {
+    return error != null;
+  }
+
+  public String error() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return hasError() ? error() : new StringRendering(value).toString();
+  }
+}
@@ -31,13 +31,15 @@ class Scanner {
   }
 
   private final String source;
+  private final List<ParseError> errors;
   private final List<Token> tokens = new ArrayList<>();
   private int start = 0;
   private int current = 0;
   private int line = 1;
 
-  Scanner(String source) {
+  Scanner(String source, List<ParseError> errors) {
     this.source = source;
+    this.errors = errors;
   }
 
   List<Token> scanTokens() {
@@ -86,7 +88,7 @@ class Scanner {
           }
 
           if (isAtEnd() || peekNext() == '\0') {
-            Main.error(line, "Unterminated block comment");
+            errors.add(new ParseError(line, "Unterminated block comment"));
 
             return;
           }
@@ -111,7 +113,7 @@ class Scanner {
         } else if (isAlpha(c)) {
           identifier();
         } else {
-          Main.error(line, "Unexpected character.");
+          errors.add(new ParseError(line, "Unexpected character."));
         }
         break;
     }
@@ -156,13 +158,13 @@ class Scanner {
     }
 
     if (isAtEnd()) {
-      Main.error(line, "Unterminated string literal.");
+      errors.add(new ParseError(line, "Unterminated string literal."));
 
       return;
     }
 
     advance();
-    addToken(STRING, source.substring(start + 1, current - 1));
+    addToken(STRING, StringTable.intern(source.substring(start + 1, current - 1)));
   }
 
   private boolean isAtEnd() {
@@ -0,0 +1,551 @@
+package com.hasz.lang.lox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class StacklessInterpreter extends Interpreter {
+  static final int DEFAULT_MAX_DEPTH = 1_000_000;
+
+  private final int maxDepth;
+  private final ArrayList<Continuation> continuations = new ArrayList<>();
+  private final ArrayList<Object> values = new ArrayList<>();
+  private final Scheduler scheduler = new Scheduler();
+  private int base = 0;
+  private int depth = 0;
+
+  StacklessInterpreter() {
+    this(DEFAULT_MAX_DEPTH);
+  }
+
+  StacklessInterpreter(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  private interface Continuation {
+    void resume();
+  }
+
+  @Override
+  Object executeTopLevel(Stmt stmt) {
+    return run(() -> schedule(stmt));
+  }
+
+  @Override
+  Object executeBlock(List<Stmt> statements, Frame frame) {
+    Frame previous = this.frame;
+
+    try {
+      this.frame = frame;
+
+      return run(() -> schedule(statements));
+    } finally {
+      this.frame = previous;
+    }
+  }
+
+  private Object run(Runnable entry) {
+    int previousBase = base;
+    int valueBase = values.size();
+    int previousDepth = depth;
+    Frame previousFrame = frame;
+
+    base = continuations.size();
+
+    try {
+      entry.run();
+
+      while (continuations.size() > base) {
+        continuations.remove(continuations.size() - 1).resume();
+      }
+
+      return pop();
+    } catch (RuntimeException | Error error) {
+      truncate(continuations, base);
+      truncate(values, valueBase);
+      depth = previousDepth;
+      frame = previousFrame;
+
+      throw error;
+    } finally {
+      base = previousBase;
+    }
+  }
+
+  private void schedule(Stmt stmt) {
+    stmt.accept(scheduler);
+  }
+
+  private void schedule(Expr expr) {
+    expr.accept(scheduler);
+  }
+
+  private void schedule(List<Stmt> statements) {
+    if (statements.isEmpty()) {
+      constant(null);
+
+      return;
+    }
+
+    for (int i = statements.size() - 1; i >= 0; i--) {
+      schedule(statements.get(i));
+
+      if (i > 0) {
+        then(this::pop);
+      }
+    }
+  }
+
+  private void then(Continuation continuation) {
+    continuations.add(continuation);
+  }
+
+  private void constant(Object value) {
+    then(() -> push(value));
+  }
+
+  private void push(Object value) {
+    values.add(value);
+  }
+
+  private Object pop() {
+    return values.remove(values.size() - 1);
+  }
+
+  private Object[] popArguments(int count) {
+    if (count == 0) {
+      return LoxCallable.NO_ARGUMENTS;
+    }
+
+    int start = values.size() - count;
+    Object[] arguments = new Object[count];
+
+    for (int i = 0; i < count; i++) {
+      arguments[i] = values.get(start + i);
+    }
+
+    truncate(values, start);
+
+    return arguments;
+  }
+
+  private static void truncate(ArrayList<?> list, int size) {
+    list.subList(size, list.size()).clear();
+  }
+
+  private void scheduleCall(Expr.Call expr, Continuation call) {
+    then(call);
+
+    for (int i = expr.arguments.size() - 1; i >= 0; i--) {
+      schedule(expr.arguments.get(i));
+    }
+
+    schedule(expr.callee);
+  }
+
+  private void call(Expr.Call expr) {
+    Object[] arguments = popArguments(expr.arguments.size());
+
+    call(expr, checkCallable(expr, pop(), frame), arguments);
+  }
+
+  private void call(Expr.Call expr, LoxCallable function, Object[] arguments) {
+    step();
+
+    if (function instanceof LoxFunction) {
+      enter(expr, (LoxFunction) function, arguments, null);
+    } else if (function instanceof LoxClass) {
+      LoxInstance instance = new LoxInstance((LoxClass) function);
+      LoxFunction initializer = ((LoxClass) function).initializer;
+
+      if (initializer == null) {
+        push(instance);
+      } else {
+        enter(expr, initializer.bind(instance), arguments, instance);
+      }
+    } else {
+      push(call(expr.paren, function, arguments));
+    }
+  }
+
+  private void tailCall(Expr.Call expr) {
+    Object[] arguments = popArguments(expr.arguments.size());
+    LoxCallable function = checkCallable(expr, pop(), frame);
+
+    if (!(function instanceof LoxFunction)) {
+      then(() -> returnFrom(pop()));
+      call(expr, function, arguments);
+
+      return;
+    }
+
+    step();
+
+    Activation activation = unwind();
+
+    if (activation == null) {
+      throw new TailCall((LoxFunction) function, arguments);
+    }
+
+    activation.function.release(this, frame);
+    activation.function = (LoxFunction) function;
+    frame = activation.function.bindArguments(this, arguments);
+    then(activation);
+    schedule(activation.function.declaration.body);
+  }
+
+  private void enter(Expr.Call expr, LoxFunction function, Object[] arguments, LoxInstance instance) {
+    if (depth >= maxDepth) {
+      throw new RuntimeError(expr.paren, "Stack overflow.");
+    }
+
+    depth++;
+
+    Activation activation = new Activation(function, frame, values.size(), instance);
+
+    frame = function.bindArguments(this, arguments);
+    then(activation);
+    schedule(function.declaration.body);
+  }
+
+  private void returnFrom(Object value) {
+    Activation activation = unwind();
+
+    if (activation == null) {
+      throw new Return(value);
+    }
+
+    activation.leave(activation.function.returnValue(value));
+  }
+
+  private Activation unwind() {
+    while (continuations.size() > base) {
+      Continuation continuation = continuations.remove(continuations.size() - 1);
+
+      if (continuation instanceof Activation) {
+        Activation activation = (Activation) continuation;
+
+        truncate(values, activation.valueBase);
+
+        return activation;
+      }
+    }
+
+    return null;
+  }
+
+  private void loop(Stmt.While stmt) {
+    then(() -> {
+      if (isTruthy(pop())) {
+        step();
+        then(() -> {
+          pop();
+          loop(stmt);
+        });
+        schedule(stmt.body);
+      } else {
+        push(null);
+      }
+    });
+    schedule(stmt.condition);
+  }
+
+  private void loop(Stmt.For stmt) {
+    Continuation body = () -> {
+      step();
+      then(() -> {
+        pop();
+
+        if (stmt.increment != null) {
+          then(() -> {
+            pop();
+            loop(stmt);
+          });
+          schedule(stmt.increment);
+        } else {
+          loop(stmt);
+        }
+      });
+      schedule(stmt.body);
+    };
+
+    if (stmt.condition == null) {
+      body.resume();
+
+      return;
+    }
+
+    then(() -> {
+      if (isTruthy(pop())) {
+        body.resume();
+      } else {
+        push(null);
+      }
+    });
+    schedule(stmt.condition);
+  }
+
+  private class Activation implements Continuation {
+    LoxFunction function;
+    final Frame caller;
+    final int valueBase;
+    final LoxInstance instance;
+
+    Activation(LoxFunction function, Frame caller, int valueBase, LoxInstance instance) {
+      this.function = function;
+      this.caller = caller;
+      this.valueBase = valueBase;
+      this.instance = instance;
+    }
+
+    @Override
+    public void resume() {
+      leave(pop());
+    }
+
+    void leave(Object value) {
+      function.release(StacklessInterpreter.this, frame);
+      frame = caller;
+      depth--;
+      push(instance != null ? instance : value);
+    }
+  }
+
+  private class Scheduler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+      then(() -> push(assign(expr, pop())));
+      schedule(expr.value);
+
+      return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+      then(() -> {
+        Object right = pop();
+        Object left = pop();
+
+        push(binary(expr, left, right));
+      });
+      schedule(expr.right);
+      schedule(expr.left);
+
+      return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+      scheduleCall(expr, () -> call(expr));
+
+      return null;
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+      then(() -> push(get(expr, pop())));
+      schedule(expr.object);
+
+      return null;
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+      then(() -> {
+        Object value = pop();
+        LoxInstance object = (LoxInstance) pop();
+
+        object.set(expr.name, value);
+        push(value);
+      });
+      schedule(expr.value);
+      then(() -> push(checkInstance(expr, pop())));
+      schedule(expr.object);
+
+      return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+      schedule(expr.expression);
+
+      return null;
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+      then(() -> push(StacklessInterpreter.this.visitThisExpr(expr)));
+
+      return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+      then(() -> push(StacklessInterpreter.this.visitSuperExpr(expr)));
+
+      return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+      constant(expr.value);
+
+      return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+      then(() -> push(unary(expr, pop())));
+      schedule(expr.right);
+
+      return null;
+    }
+
+    @Override
+    public Void visitConditionalExpr(Expr.Conditional expr) {
+      then(() -> schedule(isTruthy(pop()) ? expr.ifBranch : expr.elseBranch));
+      schedule(expr.condition);
+
+      return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+      then(() -> push(lookUpVariable(expr.name, expr.binding)));
+
+      return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+      then(() -> {
+        Object left = pop();
+        boolean shortCircuits = expr.operator.type == TokenType.OR ? isTruthy(left) : !isTruthy(left);
+
+        if (shortCircuits) {
+          push(left);
+        } else {
+          schedule(expr.right);
+        }
+      });
+      schedule(expr.left);
+
+      return null;
+    }
+
+    @Override
+    public Void visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
+      then(() -> frame.clear(stmt.firstSlot, stmt.slotCount));
+      schedule(stmt.statements);
+
+      return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+      schedule(stmt.statements);
+
+      return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+      then(() -> push(StacklessInterpreter.this.visitClassStmt(stmt)));
+
+      return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+      schedule(stmt.expression);
+
+      return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+      then(() -> {
+        print(pop());
+        push(null);
+      });
+      schedule(stmt.expression);
+
+      return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+      if (stmt.value instanceof Expr.Call && ((Expr.Call) stmt.value).isTailCall) {
+        Expr.Call call = (Expr.Call) stmt.value;
+
+        scheduleCall(call, () -> tailCall(call));
+      } else if (stmt.value != null) {
+        then(() -> returnFrom(pop()));
+        schedule(stmt.value);
+      } else {
+        then(() -> returnFrom(null));
+      }
+
+      return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+      then(() -> push(StacklessInterpreter.this.visitFunctionStmt(stmt)));
+
+      return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+      then(() -> {
+        if (isTruthy(pop())) {
+          schedule(stmt.thenBranch);
+        } else if (stmt.elseBranch != null) {
+          schedule(stmt.elseBranch);
+        } else {
+          push(null);
+        }
+      });
+      schedule(stmt.condition);
+
+      return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+      then(() -> {
+        Object value = pop();
+
+        define(stmt.name, stmt.binding, value);
+        push(value);
+      });
+
+      if (stmt.initializer != null) {
+        schedule(stmt.initializer);
+      } else {
+        constant(null);
+      }
+
+      return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+      then(() -> loop(stmt));
+
+      return null;
+    }
+
+    @Override
+    public Void visitForStmt(Stmt.For stmt) {
+      then(() -> loop(stmt));
+
+      if (stmt.initial != null) {
+        then(StacklessInterpreter.this::pop);
+        schedule(stmt.initial);
+      }
+
+      return null;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.hasz.lang.lox;
+
+enum StaticType {
+  NIL, BOOLEAN, NUMBER, STRING, UNKNOWN;
+
+  static StaticType of(Object value) {
+    if (value == null) return NIL;
+    if (value instanceof Boolean) return BOOLEAN;
+    if (value instanceof Double) return NUMBER;
+    if (value instanceof String) return STRING;
+
+    return UNKNOWN;
+  }
+
+  StaticType join(StaticType other) {
+    return this == other ? this : UNKNOWN;
+  }
+}
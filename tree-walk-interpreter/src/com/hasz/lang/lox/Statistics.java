@@ -0,0 +1,24 @@
+package com.hasz.lang.lox;
+
+class Statistics {
+  long regexLookups = 0;
+  long regexMisses = 0;
+  long operations = 0;
+  long proven = 0;
+  long locals = 0;
+  long unboxed = 0;
+
+  LoxMap toMap() {
+    LoxMap stats = new LoxMap();
+
+    stats.set("regex.hits", (double) (regexLookups - regexMisses));
+    stats.set("regex.misses", (double) regexMisses);
+    stats.set("regex.cached", (double) RegexNatives.cached());
+    stats.set("types.operations", (double) operations);
+    stats.set("types.proven", (double) proven);
+    stats.set("types.locals", (double) locals);
+    stats.set("types.unboxed", (double) unboxed);
+
+    return stats;
+  }
+}
@@ -27,6 +27,9 @@ abstract class Stmt {
     }
 
     final List<Stmt> statements;
+
+    int firstSlot = 0;
+    int slotCount = 0;
   }
 
   static class Block extends Stmt {
@@ -57,6 +60,9 @@ abstract class Stmt {
     final Token name;
     final Expr.Variable superclass;
     final List<Stmt.Function> methods;
+
+    Binding binding = null;
+    Binding superBinding = null;
   }
 
   static class Expression extends Stmt {
@@ -115,6 +121,13 @@ abstract class Stmt {
     final Token name;
     final List<Token> params;
     final List<Stmt> body;
+
+    ClosureCompiler.Code compiled = null;
+    Binding binding = null;
+    Binding receiver = null;
+    Binding[] parameters = null;
+    Binding[] captures = null;
+    int slots = 0;
   }
 
   static class If extends Stmt {
@@ -147,6 +160,8 @@ abstract class Stmt {
 
     final Token name;
     final Expr initializer;
+
+    Binding binding = null;
   }
 
   static class While extends Stmt {
@@ -0,0 +1,88 @@
+package com.hasz.lang.lox;
+
+class StringNatives {
+  private StringNatives() { }
+
+  static void define(Environment globals) {
+    globals.define("StringBuilder", LoxStringBuilder.CLASS);
+
+    globals.define("len", new NativeFunction("len", (interpreter, string) ->
+      (double) Natives.string(string, "string").length()
+    ));
+
+    globals.define("substr", new NativeFunction("substr", (interpreter, stringValue, startValue, endValue) -> {
+      String string = Natives.string(stringValue, "string");
+      int start = Natives.integer(startValue, "start");
+      int end = Natives.integer(endValue, "end");
+
+      if (start < 0 || end > string.length() || start > end) {
+        throw new NativeError("Substring [" + start + ", " + end + ") out of bounds for length " + string.length() + ".");
+      }
+
+      return string.substring(start, end);
+    }));
+
+    globals.define("indexOf", new NativeFunction("indexOf", (interpreter, string, search) ->
+      (double) Natives.string(string, "string").indexOf(Natives.string(search, "search string"))
+    ));
+
+    globals.define("split", new NativeFunction("split", (interpreter, string, separator) ->
+      split(Natives.string(string, "string"), Natives.string(separator, "separator"))
+    ));
+
+    globals.define("join", new NativeFunction("join", (interpreter, listValue, separatorValue) -> {
+      if (!(listValue instanceof LoxList)) {
+        throw new NativeError("Expected a List to join.");
+      }
+
+      LoxList list = (LoxList) listValue;
+      String separator = Natives.string(separatorValue, "separator");
+      StringBuilder builder = new StringBuilder();
+
+      for (int i = 0; i < list.size(); i++) {
+        if (i > 0) {
+          builder.append(separator);
+        }
+
+        builder.append(new StringRendering(list.get(i)));
+      }
+
+      return builder.toString();
+    }));
+
+    globals.define("replace", new NativeFunction("replace", (interpreter, string, target, replacement) ->
+      Natives.string(string, "string").replace(
+        Natives.string(target, "target"),
+        Natives.string(replacement, "replacement")
+      )
+    ));
+
+    globals.define("charCode", new NativeFunction("charCode", (interpreter, stringValue, index) -> {
+      String string = Natives.string(stringValue, "string");
+
+      return (double) string.charAt(Natives.index(index, string.length()));
+    }));
+  }
+
+  private static LoxList split(String string, String separator) {
+    LoxList parts = new LoxList();
+
+    if (separator.isEmpty()) {
+      for (int i = 0; i < string.length(); i++) {
+        parts.add(String.valueOf(string.charAt(i)));
+      }
+
+      return parts;
+    }
+
+    int start = 0;
+
+    for (int end; (end = string.indexOf(separator, start)) >= 0; start = end + separator.length()) {
+      parts.add(string.substring(start, end));
+    }
+
+    parts.add(string.substring(start));
+
+    return parts;
+  }
+}
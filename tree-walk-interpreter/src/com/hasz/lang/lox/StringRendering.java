@@ -9,6 +9,10 @@ class StringRendering {
 
   @Override
   public String toString() {
+    return render(object);
+  }
+
+  static String render(Object object) {
     if (object == null) {
       return "nil";
     }
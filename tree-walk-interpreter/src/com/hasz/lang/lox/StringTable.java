@@ -0,0 +1,73 @@
+package com.hasz.lang.lox;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+class StringTable {
+  private static final ConcurrentHashMap<Entry, Entry> strings = new ConcurrentHashMap<>();
+  private static final ReferenceQueue<String> collected = new ReferenceQueue<>();
+
+  private StringTable() { }
+
+  static String intern(String string) {
+    removeCollected();
+
+    Entry entry = new Entry(string, collected);
+
+    for (;;) {
+      Entry existing = strings.putIfAbsent(entry, entry);
+
+      if (existing == null) {
+        return string;
+      }
+
+      String interned = existing.get();
+
+      if (interned != null) {
+        return interned;
+      }
+
+      strings.remove(existing, existing);
+    }
+  }
+
+  private static void removeCollected() {
+    Reference<? extends String> reference;
+
+    while ((reference = collected.poll()) != null) {
+      strings.remove(reference, reference);
+    }
+  }
+
+  private static class Entry extends WeakReference<String> {
+    private final int hash;
+
+    Entry(String string, ReferenceQueue<String> queue) {
+      super(string, queue);
+
+      this.hash = string.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+
+      if (!(other instanceof Entry) || ((Entry) other).hash != hash) {
+        return false;
+      }
+
+      String string = get();
+
+      return string != null && string.equals(((Entry) other).get());
+    }
+  }
+}
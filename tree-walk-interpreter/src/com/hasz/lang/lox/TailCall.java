@@ -0,0 +1,13 @@
+package com.hasz.lang.lox;
+
+class TailCall extends RuntimeException {
+  final LoxFunction function;
+  final Object[] arguments;
+
+  TailCall(LoxFunction function, Object[] arguments) {
+    super(null, null, false, false);
+
+    this.function = function;
+    this.arguments = arguments;
+  }
+}
@@ -0,0 +1,92 @@
+package com.hasz.lang.lox;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+class TieredInterpreter extends Interpreter {
+  static final int DEFAULT_THRESHOLD = 1000;
+
+  private final int threshold;
+  private final Map<Stmt, Profile> loops = new IdentityHashMap<>();
+
+  TieredInterpreter() {
+    this(DEFAULT_THRESHOLD);
+  }
+
+  TieredInterpreter(int threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  Object executeBody(LoxFunction function, Frame frame) {
+    Profile profile = function.profile;
+    ClosureCompiler.Code code = profile.code;
+
+    if (code == null) {
+      if (++profile.count < threshold) {
+        return super.executeBody(function, frame);
+      }
+
+      code = ClosureCompiler.body(function.declaration);
+      profile.code = code;
+    }
+
+    return code.run(this, frame);
+  }
+
+  @Override
+  public Object visitWhileStmt(Stmt.While stmt) {
+    Profile profile = loops.computeIfAbsent(stmt, loop -> new Profile());
+
+    if (profile.code != null) {
+      return profile.code.run(this, frame);
+    }
+
+    while (isTruthy(stmt.condition.accept(this))) {
+      step();
+      stmt.body.accept(this);
+
+      if (isHot(profile)) {
+        profile.code = ClosureCompiler.compileLoop(stmt);
+
+        return profile.code.run(this, frame);
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public Object visitForStmt(Stmt.For stmt) {
+    Profile profile = loops.computeIfAbsent(stmt, loop -> new Profile());
+
+    if (stmt.initial != null) {
+      stmt.initial.accept(this);
+    }
+
+    if (profile.code != null) {
+      return profile.code.run(this, frame);
+    }
+
+    while (stmt.condition == null || isTruthy(stmt.condition.accept(this))) {
+      step();
+      stmt.body.accept(this);
+
+      if (stmt.increment != null) {
+        stmt.increment.accept(this);
+      }
+
+      if (isHot(profile)) {
+        profile.code = ClosureCompiler.compileLoop(stmt);
+
+        return profile.code.run(this, frame);
+      }
+    }
+
+    return null;
+  }
+
+  private boolean isHot(Profile profile) {
+    return ++profile.count >= threshold;
+  }
+}
@@ -0,0 +1,414 @@
+package com.hasz.lang.lox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class TypeInference implements Expr.Visitor<StaticType>, Stmt.Visitor<Void> {
+  private final Set<Expr> operations = new LinkedHashSet<>();
+  private final Set<Binding> locals = new LinkedHashSet<>();
+  private final Set<Binding> boxed = new HashSet<>();
+  private Map<Binding, StaticType> state = new HashMap<>();
+  private int proven = 0;
+  private int unboxed = 0;
+
+  void infer(List<Stmt> statements) {
+    execute(statements);
+
+    for (Binding local : locals) {
+      if (local.kind == Binding.Kind.LOCAL && !boxed.contains(local)) {
+        local.kind = Binding.Kind.NUMBER;
+        unboxed++;
+      }
+    }
+
+    for (Expr operation : operations) {
+      if (operands(operation) != StaticType.UNKNOWN) {
+        proven++;
+      }
+    }
+  }
+
+  List<String> report() {
+    List<String> lines = new ArrayList<>();
+
+    lines.add(proven + " of " + operations.size() + " checked operations proven, " + unboxed + " of " + locals.size() + " locals unboxed.");
+
+    for (Expr operation : operations) {
+      if (operands(operation) == StaticType.UNKNOWN) {
+        Token operator = operator(operation);
+
+        lines.add("[line " + operator.line + "] Unproven operands for '" + operator.lexeme + "'.");
+      }
+    }
+
+    return lines;
+  }
+
+  void count(Statistics statistics) {
+    statistics.operations += operations.size();
+    statistics.proven += proven;
+    statistics.locals += locals.size();
+    statistics.unboxed += unboxed;
+  }
+
+  private static StaticType operands(Expr operation) {
+    return operation instanceof Expr.Binary ? ((Expr.Binary) operation).operands : ((Expr.Unary) operation).operands;
+  }
+
+  private static Token operator(Expr operation) {
+    return operation instanceof Expr.Binary ? ((Expr.Binary) operation).operator : ((Expr.Unary) operation).operator;
+  }
+
+  private StaticType infer(Expr expr) {
+    return expr.accept(this);
+  }
+
+  private void execute(Stmt stmt) {
+    stmt.accept(this);
+  }
+
+  private void execute(List<Stmt> statements) {
+    for (Stmt statement : statements) {
+      execute(statement);
+    }
+  }
+
+  private void store(Binding binding, StaticType type) {
+    if (type != StaticType.NUMBER) {
+      boxed.add(binding);
+    }
+
+    if (binding.kind != Binding.Kind.LOCAL) {
+      return;
+    }
+
+    if (type == StaticType.UNKNOWN) {
+      state.remove(binding);
+    } else {
+      state.put(binding, type);
+    }
+  }
+
+  private static Map<Binding, StaticType> join(Map<Binding, StaticType> a, Map<Binding, StaticType> b) {
+    Map<Binding, StaticType> joined = new HashMap<>();
+
+    for (Map.Entry<Binding, StaticType> entry : a.entrySet()) {
+      if (entry.getValue() == b.get(entry.getKey())) {
+        joined.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    return joined;
+  }
+
+  private void loop(Expr condition, Stmt body, Expr increment) {
+    for (;;) {
+      Map<Binding, StaticType> entry = new HashMap<>(state);
+
+      if (condition != null) {
+        infer(condition);
+      }
+
+      Map<Binding, StaticType> exit = new HashMap<>(state);
+
+      execute(body);
+
+      if (increment != null) {
+        infer(increment);
+      }
+
+      state = join(entry, state);
+
+      if (state.equals(entry)) {
+        state = exit;
+
+        return;
+      }
+    }
+  }
+
+  private void function(Stmt.Function function) {
+    Map<Binding, StaticType> enclosing = state;
+
+    state = new HashMap<>();
+
+    if (function.receiver != null) {
+      boxed.add(function.receiver);
+    }
+
+    for (Binding parameter : function.parameters) {
+      boxed.add(parameter);
+    }
+
+    execute(function.body);
+    state = enclosing;
+  }
+
+  @Override
+  public StaticType visitAssignExpr(Expr.Assign expr) {
+    StaticType type = infer(expr.value);
+
+    store(expr.binding, type);
+
+    return type;
+  }
+
+  @Override
+  public StaticType visitBinaryExpr(Expr.Binary expr) {
+    StaticType left = infer(expr.left);
+    StaticType right = infer(expr.right);
+    boolean numbers = left == StaticType.NUMBER && right == StaticType.NUMBER;
+
+    switch (expr.operator.type) {
+      case COMMA:
+        return right;
+      case BANG_EQUAL:
+      case EQUAL_EQUAL:
+        return StaticType.BOOLEAN;
+      case GREATER:
+      case GREATER_EQUAL:
+      case LESS:
+      case LESS_EQUAL:
+        operations.add(expr);
+        expr.operands = numbers ? StaticType.NUMBER : StaticType.UNKNOWN;
+
+        return StaticType.BOOLEAN;
+      case MINUS:
+      case SLASH:
+      case STAR:
+        operations.add(expr);
+        expr.operands = numbers ? StaticType.NUMBER : StaticType.UNKNOWN;
+
+        return StaticType.NUMBER;
+      case PLUS:
+        operations.add(expr);
+        expr.operands = left == right && (left == StaticType.NUMBER || left == StaticType.STRING) ? left : StaticType.UNKNOWN;
+
+        if (left == StaticType.NUMBER || right == StaticType.NUMBER) return StaticType.NUMBER;
+        if (left == StaticType.STRING || right == StaticType.STRING) return StaticType.STRING;
+
+        return StaticType.UNKNOWN;
+      default:
+        return StaticType.UNKNOWN;
+    }
+  }
+
+  @Override
+  public StaticType visitCallExpr(Expr.Call expr) {
+    infer(expr.callee);
+
+    for (Expr argument : expr.arguments) {
+      infer(argument);
+    }
+
+    return StaticType.UNKNOWN;
+  }
+
+  @Override
+  public StaticType visitGetExpr(Expr.Get expr) {
+    infer(expr.object);
+
+    return StaticType.UNKNOWN;
+  }
+
+  @Override
+  public StaticType visitSetExpr(Expr.Set expr) {
+    infer(expr.object);
+
+    return infer(expr.value);
+  }
+
+  @Override
+  public StaticType visitGroupingExpr(Expr.Grouping expr) {
+    return infer(expr.expression);
+  }
+
+  @Override
+  public StaticType visitThisExpr(Expr.This expr) {
+    return StaticType.UNKNOWN;
+  }
+
+  @Override
+  public StaticType visitSuperExpr(Expr.Super expr) {
+    return StaticType.UNKNOWN;
+  }
+
+  @Override
+  public StaticType visitLiteralExpr(Expr.Literal expr) {
+    return StaticType.of(expr.value);
+  }
+
+  @Override
+  public StaticType visitUnaryExpr(Expr.Unary expr) {
+    StaticType right = infer(expr.right);
+
+    switch (expr.operator.type) {
+      case MINUS:
+        operations.add(expr);
+        expr.operands = right == StaticType.NUMBER ? StaticType.NUMBER : StaticType.UNKNOWN;
+
+        return StaticType.NUMBER;
+      case BANG:
+        return StaticType.BOOLEAN;
+      default:
+        return StaticType.UNKNOWN;
+    }
+  }
+
+  @Override
+  public StaticType visitConditionalExpr(Expr.Conditional expr) {
+    infer(expr.condition);
+
+    Map<Binding, StaticType> before = new HashMap<>(state);
+    StaticType ifType = infer(expr.ifBranch);
+    Map<Binding, StaticType> afterIf = state;
+
+    state = before;
+
+    StaticType elseType = infer(expr.elseBranch);
+
+    state = join(afterIf, state);
+
+    return ifType.join(elseType);
+  }
+
+  @Override
+  public StaticType visitVariableExpr(Expr.Variable expr) {
+    StaticType type = state.getOrDefault(expr.binding, StaticType.UNKNOWN);
+
+    if (type != StaticType.NUMBER) {
+      boxed.add(expr.binding);
+    }
+
+    return type;
+  }
+
+  @Override
+  public StaticType visitLogicalExpr(Expr.Logical expr) {
+    StaticType left = infer(expr.left);
+    Map<Binding, StaticType> before = new HashMap<>(state);
+    StaticType right = infer(expr.right);
+
+    state = join(before, state);
+
+    return left.join(right);
+  }
+
+  @Override
+  public Void visitScopedBlockStmt(Stmt.ScopedBlock stmt) {
+    execute(stmt.statements);
+
+    return null;
+  }
+
+  @Override
+  public Void visitBlockStmt(Stmt.Block stmt) {
+    execute(stmt.statements);
+
+    return null;
+  }
+
+  @Override
+  public Void visitClassStmt(Stmt.Class stmt) {
+    if (stmt.superclass != null) {
+      infer(stmt.superclass);
+      boxed.add(stmt.superBinding);
+    }
+
+    store(stmt.binding, StaticType.UNKNOWN);
+
+    for (Stmt.Function method : stmt.methods) {
+      function(method);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitExpressionStmt(Stmt.Expression stmt) {
+    infer(stmt.expression);
+
+    return null;
+  }
+
+  @Override
+  public Void visitPrintStmt(Stmt.Print stmt) {
+    infer(stmt.expression);
+
+    return null;
+  }
+
+  @Override
+  public Void visitReturnStmt(Stmt.Return stmt) {
+    if (stmt.value != null) {
+      infer(stmt.value);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitFunctionStmt(Stmt.Function stmt) {
+    store(stmt.binding, StaticType.UNKNOWN);
+    function(stmt);
+
+    return null;
+  }
+
+  @Override
+  public Void visitIfStmt(Stmt.If stmt) {
+    infer(stmt.condition);
+
+    Map<Binding, StaticType> before = new HashMap<>(state);
+
+    execute(stmt.thenBranch);
+
+    Map<Binding, StaticType> afterThen = state;
+
+    state = before;
+
+    if (stmt.elseBranch != null) {
+      execute(stmt.elseBranch);
+    }
+
+    state = join(afterThen, state);
+
+    return null;
+  }
+
+  @Override
+  public Void visitVarStmt(Stmt.Var stmt) {
+    StaticType type = stmt.initializer != null ? infer(stmt.initializer) : StaticType.NIL;
+
+    if (stmt.binding.kind == Binding.Kind.LOCAL) {
+      locals.add(stmt.binding);
+    }
+
+    store(stmt.binding, type);
+
+    return null;
+  }
+
+  @Override
+  public Void visitWhileStmt(Stmt.While stmt) {
+    loop(stmt.condition, stmt.body, null);
+
+    return null;
+  }
+
+  @Override
+  public Void visitForStmt(Stmt.For stmt) {
+    if (stmt.initial != null) {
+      execute(stmt.initial);
+    }
+
+    loop(stmt.condition, stmt.body, stmt.increment);
+
+    return null;
+  }
+}
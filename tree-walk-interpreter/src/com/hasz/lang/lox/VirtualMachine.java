@@ -0,0 +1,595 @@
+package com.hasz.lang.lox;
+
+import java.util.Arrays;
+
+import static com.hasz.lang.lox.OpCode.*;
+
+class VirtualMachine extends Interpreter {
+  static final int DEFAULT_MAX_FRAMES = 1_000_000;
+
+  private final int maxFrames;
+  private Object[] stack = new Object[1024];
+  private int sp = 0;
+  private VmClosure[] frameClosures = new VmClosure[64];
+  private int[] frameIps = new int[64];
+  private int[] frameBases = new int[64];
+  private boolean[] frameConstructs = new boolean[64];
+  private int frameCount = 0;
+  private VmUpvalue openUpvalues = null;
+
+  VirtualMachine() {
+    this(DEFAULT_MAX_FRAMES);
+  }
+
+  VirtualMachine(int maxFrames) {
+    this.maxFrames = maxFrames;
+  }
+
+  @Override
+  Object interpret(Program program) {
+    VmClosure script = new VmClosure(new BytecodeCompiler().compile(program.statements));
+
+    try {
+      push(script);
+      enter(script, 0, false);
+
+      return run(0);
+    } finally {
+      closeUpvalues(0);
+      Arrays.fill(stack, 0, Math.max(sp, 1), null);
+      sp = 0;
+      frameCount = 0;
+      openUpvalues = null;
+    }
+  }
+
+  Object callFromNative(LoxCallable callee, Object[] arguments) {
+    int savedSp = sp;
+    int savedFrameCount = frameCount;
+
+    ensureCapacity(sp + arguments.length + 1);
+    push(callee);
+
+    for (Object argument : arguments) {
+      push(argument);
+    }
+
+    try {
+      if (callValue(callee, arguments.length)) {
+        return run(savedFrameCount);
+      }
+
+      return pop();
+    } catch (RuntimeException error) {
+      closeUpvalues(savedSp);
+      frameCount = savedFrameCount;
+      sp = savedSp;
+
+      throw error;
+    }
+  }
+
+  private Object run(int exitFrameCount) {
+    VmClosure closure = frameClosures[frameCount - 1];
+    VmFunction function = closure.function;
+    byte[] code = function.code;
+    Object[] constants = function.constants;
+    int ip = frameIps[frameCount - 1];
+    int base = frameBases[frameCount - 1];
+    Object[] stack = this.stack;
+    int sp = this.sp;
+
+    for (;;) {
+      byte op = code[ip++];
+
+      switch (op) {
+        case CONSTANT:
+          stack[sp++] = constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+          ip += 2;
+          break;
+        case NIL:
+          stack[sp++] = null;
+          break;
+        case TRUE:
+          stack[sp++] = true;
+          break;
+        case FALSE:
+          stack[sp++] = false;
+          break;
+        case POP:
+          stack[--sp] = null;
+          break;
+        case GET_LOCAL:
+          stack[sp++] = stack[base + (code[ip++] & 0xff)];
+          break;
+        case SET_LOCAL:
+          stack[base + (code[ip++] & 0xff)] = stack[sp - 1];
+          break;
+        case GET_GLOBAL: {
+          Token name = (Token) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+
+          ip += 2;
+          stack[sp++] = globals.get(name);
+          break;
+        }
+        case DEFINE_GLOBAL: {
+          String name = (String) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+
+          ip += 2;
+          globals.define(name, stack[--sp]);
+          break;
+        }
+        case SET_GLOBAL: {
+          Token name = (Token) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+
+          ip += 2;
+          globals.assign(name, stack[sp - 1]);
+          break;
+        }
+        case GET_UPVALUE: {
+          VmUpvalue upvalue = closure.upvalues[code[ip++] & 0xff];
+
+          stack[sp++] = upvalue.isOpen() ? stack[upvalue.index] : upvalue.value;
+          break;
+        }
+        case SET_UPVALUE: {
+          VmUpvalue upvalue = closure.upvalues[code[ip++] & 0xff];
+
+          if (upvalue.isOpen()) {
+            stack[upvalue.index] = stack[sp - 1];
+          } else {
+            upvalue.value = stack[sp - 1];
+          }
+          break;
+        }
+        case GET_PROPERTY: {
+          Token name = (Token) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+
+          ip += 2;
+          stack[sp - 1] = getProperty(stack[sp - 1], name);
+          break;
+        }
+        case SET_PROPERTY: {
+          Token name = (Token) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+          Object value = stack[--sp];
+          Object object = stack[--sp];
+
+          ip += 2;
+
+          if (!(object instanceof VmInstance)) {
+            throw new RuntimeError(name, "Only instances have fields.");
+          }
+
+          ((VmInstance) object).fields.put(name.lexeme, value);
+          stack[sp++] = value;
+          break;
+        }
+        case GET_SUPER: {
+          Token name = (Token) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+          VmClass superclass = (VmClass) stack[--sp];
+          VmInstance instance = (VmInstance) stack[--sp];
+          VmClosure method = superclass.methods.get(name.lexeme);
+
+          ip += 2;
+
+          if (method == null) {
+            throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+          }
+
+          stack[sp++] = new VmBoundMethod(instance, method);
+          break;
+        }
+        case EQUAL: {
+          Object b = stack[--sp];
+
+          stack[sp - 1] = isEqual(stack[sp - 1], b);
+          break;
+        }
+        case NOT_EQUAL: {
+          Object b = stack[--sp];
+
+          stack[sp - 1] = !isEqual(stack[sp - 1], b);
+          break;
+        }
+        case GREATER: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a > (double) b;
+          break;
+        }
+        case GREATER_EQUAL: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a >= (double) b;
+          break;
+        }
+        case LESS: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a < (double) b;
+          break;
+        }
+        case LESS_EQUAL: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a <= (double) b;
+          break;
+        }
+        case ADD: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          if (a instanceof Double && b instanceof Double) {
+            stack[sp - 1] = (double) a + (double) b;
+          } else if (a instanceof String && b instanceof String) {
+            stack[sp - 1] = (String) a + b;
+          } else {
+            throw error(function, ip, "Expected operands to both be numbers or both be strings");
+          }
+          break;
+        }
+        case SUBTRACT: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a - (double) b;
+          break;
+        }
+        case MULTIPLY: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a * (double) b;
+          break;
+        }
+        case DIVIDE: {
+          Object b = stack[--sp];
+          Object a = stack[sp - 1];
+
+          checkNumbers(function, ip, a, b);
+          stack[sp - 1] = (double) a / (double) b;
+          break;
+        }
+        case NOT:
+          stack[sp - 1] = !isTruthy(stack[sp - 1]);
+          break;
+        case NEGATE:
+          if (!(stack[sp - 1] instanceof Double)) {
+            throw error(function, ip, "Expected operand to be a number.");
+          }
+
+          stack[sp - 1] = -(double) stack[sp - 1];
+          break;
+        case PRINT:
+          print(stack[--sp]);
+          break;
+        case JUMP:
+          ip += ((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff);
+          ip += 2;
+          break;
+        case JUMP_IF_FALSE:
+          if (!isTruthy(stack[sp - 1])) {
+            ip += ((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff);
+          }
+
+          ip += 2;
+          break;
+        case LOOP:
+          ip -= ((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff);
+          ip += 2;
+          step();
+          break;
+        case CALL:
+        case TAIL_CALL: {
+          int argumentCount = code[ip++] & 0xff;
+          Object callee = stack[sp - argumentCount - 1];
+
+          frameIps[frameCount - 1] = ip;
+          step();
+
+          if (op == TAIL_CALL && (callee instanceof VmClosure || callee instanceof VmBoundMethod)) {
+            checkArity(((LoxCallable) callee).arity(), argumentCount);
+            closeUpvalues(base);
+            System.arraycopy(stack, sp - argumentCount - 1, stack, base, argumentCount + 1);
+            Arrays.fill(stack, base + argumentCount + 1, sp, null);
+            sp = base + argumentCount + 1;
+            frameCount--;
+          }
+
+          this.sp = sp;
+
+          boolean entered = callValue(callee, argumentCount);
+
+          stack = this.stack;
+          sp = this.sp;
+
+          if (entered) {
+            closure = frameClosures[frameCount - 1];
+            function = closure.function;
+            code = function.code;
+            constants = function.constants;
+            ip = frameIps[frameCount - 1];
+            base = frameBases[frameCount - 1];
+          }
+          break;
+        }
+        case CLOSURE: {
+          VmClosure created = new VmClosure((VmFunction) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)]);
+
+          ip += 2;
+
+          for (int i = 0; i < created.upvalues.length; i++) {
+            boolean isLocal = code[ip++] == 1;
+            int index = code[ip++] & 0xff;
+
+            created.upvalues[i] = isLocal ? captureUpvalue(base + index) : closure.upvalues[index];
+          }
+
+          stack[sp++] = created;
+          break;
+        }
+        case CLOSE_UPVALUES:
+          closeUpvalues(base + (code[ip++] & 0xff));
+          break;
+        case CLEAR_LOCALS: {
+          int first = base + (code[ip] & 0xff);
+
+          Arrays.fill(stack, first, first + (code[ip + 1] & 0xff), null);
+          ip += 2;
+          break;
+        }
+        case RETURN: {
+          Object result = stack[--sp];
+
+          closeUpvalues(base);
+          frameCount--;
+
+          if (frameConstructs[frameCount]) {
+            result = stack[base];
+          }
+
+          Arrays.fill(stack, base, sp, null);
+
+          if (frameCount == exitFrameCount) {
+            this.sp = base;
+
+            return result;
+          }
+
+          stack[base] = result;
+          sp = base + 1;
+          closure = frameClosures[frameCount - 1];
+          function = closure.function;
+          code = function.code;
+          constants = function.constants;
+          ip = frameIps[frameCount - 1];
+          base = frameBases[frameCount - 1];
+          break;
+        }
+        case CLASS:
+          stack[sp++] = new VmClass((String) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)]);
+          ip += 2;
+          break;
+        case INHERIT: {
+          Object superclass = stack[--sp];
+
+          if (!(superclass instanceof VmClass)) {
+            throw error(function, ip, "Superclass must be a class.");
+          }
+
+          ((VmClass) stack[sp - 1]).inherit((VmClass) superclass);
+          break;
+        }
+        case METHOD: {
+          String name = (String) constants[((code[ip] & 0xff) << 8) | (code[ip + 1] & 0xff)];
+
+          ip += 2;
+          ((VmClass) stack[sp - 2]).define(name, (VmClosure) stack[--sp]);
+          break;
+        }
+        default:
+          throw error(function, ip, "Unknown opcode " + op + ".");
+      }
+    }
+  }
+
+  private boolean callValue(Object callee, int argumentCount) {
+    if (callee instanceof VmClosure) {
+      enter((VmClosure) callee, argumentCount, false);
+
+      return true;
+    }
+
+    if (callee instanceof VmBoundMethod) {
+      VmBoundMethod bound = (VmBoundMethod) callee;
+
+      stack[sp - argumentCount - 1] = bound.receiver;
+      enter(bound.method, argumentCount, false);
+
+      return true;
+    }
+
+    if (callee instanceof VmClass) {
+      VmClass klass = (VmClass) callee;
+
+      stack[sp - argumentCount - 1] = new VmInstance(klass);
+
+      if (klass.initializer != null) {
+        enter(klass.initializer, argumentCount, true);
+
+        return true;
+      }
+
+      checkArity(0, argumentCount);
+
+      return false;
+    }
+
+    if (callee == null) {
+      throw error("Variable is nil.");
+    }
+
+    if (!(callee instanceof LoxCallable)) {
+      throw error("Can only call functions and classes.");
+    }
+
+    LoxCallable function = (LoxCallable) callee;
+
+    checkArity(function.arity(), argumentCount);
+
+    Object[] arguments = Arrays.copyOfRange(stack, sp - argumentCount, sp);
+
+    Arrays.fill(stack, sp - argumentCount - 1, sp, null);
+    sp -= argumentCount + 1;
+
+    try {
+      push(function.call(this, arguments));
+    } catch (NativeError error) {
+      throw error(error.getMessage());
+    } catch (StackOverflowError error) {
+      throw error("Stack overflow.");
+    }
+
+    return false;
+  }
+
+  private void enter(VmClosure closure, int argumentCount, boolean constructs) {
+    VmFunction function = closure.function;
+
+    checkArity(function.arity, argumentCount);
+
+    if (frameCount == maxFrames) {
+      throw error("Stack overflow.");
+    }
+
+    if (frameCount == frameClosures.length) {
+      frameClosures = Arrays.copyOf(frameClosures, frameCount * 2);
+      frameIps = Arrays.copyOf(frameIps, frameCount * 2);
+      frameBases = Arrays.copyOf(frameBases, frameCount * 2);
+      frameConstructs = Arrays.copyOf(frameConstructs, frameCount * 2);
+    }
+
+    int base = sp - argumentCount - 1;
+
+    ensureCapacity(base + function.maxSlots + function.maxStack);
+    sp = base + function.maxSlots;
+
+    frameClosures[frameCount] = closure;
+    frameIps[frameCount] = 0;
+    frameBases[frameCount] = base;
+    frameConstructs[frameCount] = constructs;
+    frameCount++;
+  }
+
+  private void checkArity(int arity, int argumentCount) {
+    if (argumentCount != arity) {
+      throw error("Expected " + arity + " arguments but got " + argumentCount + ".");
+    }
+  }
+
+  private Object getProperty(Object object, Token name) {
+    if (object instanceof VmInstance) {
+      VmInstance instance = (VmInstance) object;
+      Object value = instance.fields.get(name.lexeme);
+
+      if (value != null || instance.fields.containsKey(name.lexeme)) {
+        return value;
+      }
+
+      VmClosure method = instance.klass.methods.get(name.lexeme);
+
+      if (method != null) {
+        return new VmBoundMethod(instance, method);
+      }
+
+      throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+    }
+
+    if (object instanceof NativeInstance) {
+      return ((NativeInstance) object).get(name);
+    }
+
+    throw new RuntimeError(name, "Only instances have properties.");
+  }
+
+  private VmUpvalue captureUpvalue(int index) {
+    VmUpvalue previous = null;
+    VmUpvalue upvalue = openUpvalues;
+
+    while (upvalue != null && upvalue.index > index) {
+      previous = upvalue;
+      upvalue = upvalue.next;
+    }
+
+    if (upvalue != null && upvalue.index == index) {
+      return upvalue;
+    }
+
+    VmUpvalue created = new VmUpvalue(index, upvalue);
+
+    if (previous == null) {
+      openUpvalues = created;
+    } else {
+      previous.next = created;
+    }
+
+    return created;
+  }
+
+  private void closeUpvalues(int last) {
+    while (openUpvalues != null && openUpvalues.index >= last) {
+      VmUpvalue upvalue = openUpvalues;
+
+      upvalue.value = stack[upvalue.index];
+      upvalue.index = -1;
+      openUpvalues = upvalue.next;
+      upvalue.next = null;
+    }
+  }
+
+  private void push(Object value) {
+    stack[sp++] = value;
+  }
+
+  private Object pop() {
+    Object value = stack[--sp];
+
+    stack[sp] = null;
+
+    return value;
+  }
+
+  private void ensureCapacity(int size) {
+    if (size > stack.length) {
+      stack = Arrays.copyOf(stack, Math.max(size, stack.length * 2));
+    }
+  }
+
+  private void checkNumbers(VmFunction function, int ip, Object a, Object b) {
+    if (!(a instanceof Double && b instanceof Double)) {
+      throw error(function, ip, "Expected operands to be numbers.");
+    }
+  }
+
+  private RuntimeError error(VmFunction function, int ip, String message) {
+    return new RuntimeError(new Token(TokenType.NIL, "", null, function.lines[ip - 1]), message);
+  }
+
+  private RuntimeError error(String message) {
+    if (frameCount == 0) {
+      return new RuntimeError(new Token(TokenType.NIL, "", null, 0), message);
+    }
+
+    return error(frameClosures[frameCount - 1].function, frameIps[frameCount - 1], message);
+  }
+}
@@ -0,0 +1,26 @@
+package com.hasz.lang.lox;
+
+class VmBoundMethod implements LoxCallable {
+  final VmInstance receiver;
+  final VmClosure method;
+
+  VmBoundMethod(VmInstance receiver, VmClosure method) {
+    this.receiver = receiver;
+    this.method = method;
+  }
+
+  @Override
+  public int arity() {
+    return method.arity();
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return ((VirtualMachine) interpreter).callFromNative(this, arguments);
+  }
+
+  @Override
+  public String toString() {
+    return method.toString();
+  }
+}
@@ -0,0 +1,42 @@
+package com.hasz.lang.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class VmClass implements LoxCallable {
+  final String name;
+  final Map<String, VmClosure> methods = new HashMap<>();
+  VmClosure initializer;
+
+  VmClass(String name) {
+    this.name = name;
+  }
+
+  void inherit(VmClass superclass) {
+    methods.putAll(superclass.methods);
+    initializer = superclass.initializer;
+  }
+
+  void define(String name, VmClosure method) {
+    methods.put(name, method);
+
+    if (name.equals("init")) {
+      initializer = method;
+    }
+  }
+
+  @Override
+  public int arity() {
+    return initializer == null ? 0 : initializer.arity();
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return ((VirtualMachine) interpreter).callFromNative(this, arguments);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,26 @@
+package com.hasz.lang.lox;
+
+class VmClosure implements LoxCallable {
+  final VmFunction function;
+  final VmUpvalue[] upvalues;
+
+  VmClosure(VmFunction function) {
+    this.function = function;
+    this.upvalues = new VmUpvalue[function.upvalueCount];
+  }
+
+  @Override
+  public int arity() {
+    return function.arity;
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, Object[] arguments) {
+    return ((VirtualMachine) interpreter).callFromNative(this, arguments);
+  }
+
+  @Override
+  public String toString() {
+    return function.toString();
+  }
+}
@@ -0,0 +1,30 @@
+package com.hasz.lang.lox;
+
+class VmFunction {
+  final String name;
+  final int arity;
+  final boolean isInitializer;
+  final byte[] code;
+  final int[] lines;
+  final Object[] constants;
+  final int upvalueCount;
+  final int maxSlots;
+  final int maxStack;
+
+  VmFunction(String name, int arity, boolean isInitializer, Chunk chunk, int upvalueCount, int maxSlots, int maxStack) {
+    this.name = name;
+    this.arity = arity;
+    this.isInitializer = isInitializer;
+    this.code = chunk.code();
+    this.lines = chunk.lines();
+    this.constants = chunk.constants();
+    this.upvalueCount = upvalueCount;
+    this.maxSlots = maxSlots;
+    this.maxStack = maxStack;
+  }
+
+  @Override
+  public String toString() {
+    return name == null ? "<script>" : "<fn " + name + ">";
+  }
+}
@@ -0,0 +1,18 @@
+package com.hasz.lang.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class VmInstance {
+  final VmClass klass;
+  final Map<String, Object> fields = new HashMap<>();
+
+  VmInstance(VmClass klass) {
+    this.klass = klass;
+  }
+
+  @Override
+  public String toString() {
+    return klass.name + " instance";
+  }
+}
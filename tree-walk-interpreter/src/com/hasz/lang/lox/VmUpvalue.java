@@ -0,0 +1,16 @@
+package com.hasz.lang.lox;
+
+class VmUpvalue {
+  int index;
+  Object value;
+  VmUpvalue next;
+
+  VmUpvalue(int index, VmUpvalue next) {
+    this.index = index;
+    this.next = next;
+  }
+
+  boolean isOpen() {
+    return index >= 0;
+  }
+}
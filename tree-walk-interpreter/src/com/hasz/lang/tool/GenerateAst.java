@@ -15,31 +15,31 @@ public class GenerateAst {
     String outputDir = args[0];
 
     defineAst(outputDir, "Expr", Arrays.asList(
-      "Assign      : Token name, Expr value",
-      "Binary      : Expr left, Token operator, Expr right",
-      "Call        : Expr callee, Token paren, List<Expr> arguments",
+      "Assign      : Token name, Expr value | Binding binding = null",
+      "Binary      : Expr left, Token operator, Expr right | StaticType operands = StaticType.UNKNOWN",
+      "Call        : Expr callee, Token paren, List<Expr> arguments | boolean isTailCall = false, int site = -1",
       "Get         : Expr object, Token name",
       "Set         : Expr object, Token name, Expr value",
       "Grouping    : Expr expression",
-      "This        : Token keyword",
-      "Super       : Token keyword, Token method",
+      "This        : Token keyword | Binding binding = null",
+      "Super       : Token keyword, Token method | Binding binding = null, Binding receiver = null",
       "Literal     : Object value",
-      "Unary       : Token operator, Expr right",
+      "Unary       : Token operator, Expr right | StaticType operands = StaticType.UNKNOWN",
       "Conditional : Expr condition, Expr ifBranch, Expr elseBranch",
-      "Variable    : Token name",
+      "Variable    : Token name | Binding binding = null",
       "Logical     : Expr left, Token operator, Expr right"
     ));
 
     defineAst(outputDir, "Stmt", Arrays.asList(
-      "ScopedBlock : List<Stmt> statements",
+      "ScopedBlock : List<Stmt> statements | int firstSlot = 0, int slotCount = 0",
       "Block       : List<Stmt> statements",
-      "Class       : Token name, Expr.Variable superclass, List<Stmt.Function> methods",
+      "Class       : Token name, Expr.Variable superclass, List<Stmt.Function> methods | Binding binding = null, Binding superBinding = null",
       "Expression  : Expr expression",
       "Print       : Expr expression",
       "Return      : Token keyword, Expr value",
-      "Function    : Token name, List<Token> params, List<Stmt> body",
+      "Function    : Token name, List<Token> params, List<Stmt> body | ClosureCompiler.Code compiled = null, Binding binding = null, Binding receiver = null, Binding[] parameters = null, Binding[] captures = null, int slots = 0",
       "If          : Expr condition, Stmt thenBranch, Stmt elseBranch",
-      "Var         : Token name, Expr initializer",
+      "Var         : Token name, Expr initializer | Binding binding = null",
       "While       : Expr condition, Stmt body",
       "For         : Stmt initial, Expr condition, Expr increment, Stmt body"
     ));
@@ -59,9 +59,10 @@ public class GenerateAst {
 
     for (String type : types) {
       String className = type.split(":")[0].trim();
-      String fields = type.split(":")[1].trim();
+      String[] fields = type.split(":")[1].split("\\|");
+      String annotations = fields.length > 1 ? fields[1].trim() : null;
 
-      defineType(writer, baseName, className, fields);
+      defineType(writer, baseName, className, fields[0].trim(), annotations);
     }
 
     writer.println();
@@ -83,7 +84,7 @@ public class GenerateAst {
     writer.println("  }");
   }
 
-  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList) {
+  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList, String annotationList) {
     String[] fields = fieldList.split(", ");
 
     writer.println("  static class " + className + " extends " + baseName + " {");
@@ -106,6 +107,14 @@ public class GenerateAst {
       writer.println("    final " + field + ";");
     }
 
+    if (annotationList != null) {
+      writer.println();
+
+      for (String annotation : annotationList.split(", ")) {
+        writer.println("    " + annotation + ";");
+      }
+    }
+
     writer.println("  }");
     writer.println();
   }
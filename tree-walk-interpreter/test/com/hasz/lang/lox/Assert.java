@@ -0,0 +1,29 @@
+package com.hasz.lang.lox;
+
+import java.util.Objects;
+
+class Assert {
+  private Assert() { }
+
+  static void assertEquals(Object expected, Object actual) {
+    if (!Objects.equals(expected, actual)) {
+      throw new AssertionError("Expected <" + expected + "> but got <" + actual + ">.");
+    }
+  }
+
+  static void assertTrue(boolean condition, String message) {
+    if (!condition) {
+      throw new AssertionError(message);
+    }
+  }
+
+  static void assertSame(Object expected, Object actual) {
+    if (expected != actual) {
+      throw new AssertionError("Expected the same instance as <" + expected + "> but got <" + actual + ">.");
+    }
+  }
+
+  static void fail(String message) {
+    throw new AssertionError(message);
+  }
+}
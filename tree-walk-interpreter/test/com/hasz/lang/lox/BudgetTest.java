@@ -0,0 +1,101 @@
+package com.hasz.lang.lox;
+
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+
+class BudgetTest {
+  private static final String SPIN = "fun spin() { while (true) { } } spin();";
+
+  void testStepBudgetStopsEveryEngine() {
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        context.limit(Budget.steps(10_000));
+
+        Assert.assertEquals("Step budget exceeded.", context.execute(Program.compile(SPIN)).error());
+      }
+    }
+  }
+
+  void testTimeBudgetStopsEveryEngine() {
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        long start = System.nanoTime();
+
+        context.limit(Budget.time(Duration.ofMillis(50)));
+
+        Assert.assertEquals("Time budget exceeded.", context.execute(Program.compile(SPIN)).error());
+        Assert.assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos(), engine + " overran its time budget.");
+      }
+    }
+  }
+
+  void testBudgetIsRestartedForEachRun() {
+    Context context = new Context();
+    Program program = Program.compile("var n = 0; while (n < 100) { n = n + 1; } n;");
+
+    context.limit(Budget.steps(2000));
+
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(100.0, context.execute(program).value());
+    }
+  }
+
+  void testExecutorAppliesBudgetsAndOutput() throws Exception {
+    StringWriter output = new StringWriter();
+
+    try (LoxExecutor executor = new LoxExecutor()) {
+      Result spun = executor.submit("print \"start\"; " + SPIN, Budget.steps(10_000), output).get();
+      Result timed = executor.submit(SPIN, Budget.time(Duration.ofMillis(50)), new StringWriter()).get();
+      Result finished = executor.submit("1 + 2;", Budget.of(1000, Duration.ofSeconds(10)), new StringWriter()).get();
+      Result broken = executor.submit("print ;", Budget.unlimited(), new StringWriter()).get();
+
+      Assert.assertEquals("Step budget exceeded.", spun.error());
+      Assert.assertEquals("start\n", output.toString());
+      Assert.assertEquals("Time budget exceeded.", timed.error());
+      Assert.assertEquals(3.0, finished.value());
+      Assert.assertTrue(broken.hasError(), "Expected the compile error as the result.");
+    }
+  }
+
+  void testNonPositiveBudgetsAreRejected() {
+    try {
+      Budget.steps(0);
+      Assert.fail("Expected a zero step budget to be rejected.");
+    } catch (IllegalArgumentException expected) {
+    }
+
+    try {
+      Budget.time(Duration.ZERO);
+      Assert.fail("Expected a zero time budget to be rejected.");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  void testCachedProgramDoesNotRetainEarlierTenants() throws InterruptedException {
+    Program program = Program.compile(
+        "var keep = List(); keep.push(\"tenant\");" +
+        "fun get() { return keep; }" +
+        "class Holder { init() { this.value = keep; } held() { return this.value; } }" +
+        "for (var i = 0; i < 10; i = i + 1) { get(); Holder().held(); }");
+
+    for (String engine : ScriptTest.engines()) {
+      WeakReference<Object> tenant = run(engine, program);
+
+      for (int i = 0; i < 100 && tenant.get() != null; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+
+      Assert.assertTrue(tenant.get() == null, engine + " kept an earlier tenant's values reachable from the program.");
+    }
+  }
+
+  private static WeakReference<Object> run(String engine, Program program) {
+    try (Context context = ScriptTest.engine(engine)) {
+      Assert.assertEquals(null, context.execute(program).error());
+
+      return new WeakReference<>(context.global("keep"));
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.hasz.lang.lox;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ContextTest {
+  void testResultHoldsTheLastExpressionValue() {
+    Result result = new Context().execute(Program.compile("var a = 20; a + 1;"));
+
+    Assert.assertEquals(21.0, result.value());
+    Assert.assertTrue(!result.hasError(), "Expected no error.");
+  }
+
+  void testRuntimeErrorsAreReportedWithTheirLine() {
+    Result result = new Context().execute(Program.compile("var a = 1;\nnil + a;"));
+
+    Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 2]", result.error());
+  }
+
+  void testCompileErrorsAreCollected() {
+    Program program = Program.compile("var = 1;");
+
+    Assert.assertTrue(program.hasErrors(), "Expected a compile error.");
+    Assert.assertEquals(1, program.errors().size());
+  }
+
+  void testProgramsWithErrorsCannotRun() {
+    try {
+      new Context().execute(Program.compile("print ;"));
+      Assert.fail("Expected an IllegalArgumentException.");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  void testContextsDoNotShareGlobals() {
+    Program program = Program.compile("var n = 0; fun bump() { n = n + 1; return n; } bump();");
+    Context first = new Context();
+    Context second = new Context();
+
+    first.execute(program);
+    first.execute(program);
+    second.execute(program);
+
+    Assert.assertEquals(2.0, first.execute(Program.compile("bump();")).value());
+    Assert.assertEquals(2.0, second.execute(Program.compile("bump();")).value());
+  }
+
+  void testGlobalsPersistAcrossPrograms() {
+    Context context = new Context();
+
+    context.execute(Program.compile("fun later() { return helper(); }"));
+    context.execute(Program.compile("fun helper() { return 7; }"));
+
+    Assert.assertEquals(7.0, context.execute(Program.compile("later();")).value());
+    Assert.assertEquals(8.0, context.execute(Program.compile("fun helper() { return 8; } later();")).value());
+  }
+
+  void testGlobalsExcludeBuiltins() {
+    Context context = new Context();
+
+    context.execute(Program.compile("var mine = 1; fun clock() { return 0; }"));
+
+    Assert.assertEquals(2, context.globals().size());
+    Assert.assertTrue(context.globals().containsKey("clock"), "Expected a redefined builtin to be exported.");
+  }
+
+  void testOutputIsRedirected() {
+    StringWriter writer = new StringWriter();
+    Context context = new Context();
+
+    context.redirect(writer, FlushPolicy.EXIT);
+    context.execute(Program.compile("print \"out\";"));
+
+    Assert.assertEquals("out\n", writer.toString());
+  }
+
+  void testOneProgramRunsConcurrentlyInManyContexts() throws Exception {
+    Program program = Program.compile("fun fib(n) { if (n < 2) { return n; } return fib(n - 1) + fib(n - 2); } class A { init(x) { this.x = x; } } A(fib(18)).x;");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<Object>> results = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < 64; i++) {
+        results.add(executor.submit(() -> new Context().execute(program).value()));
+      }
+
+      for (Future<Object> result : results) {
+        Assert.assertEquals(2584.0, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  void testCallReturnsValuesAndErrors() {
+    Context context = new Context();
+
+    context.execute(Program.compile("fun twice(x) { return x + x; } fun deep(n) { return deep(n + 1) + 1; } fun spin(n) { while (true) { } }"));
+
+    Assert.assertEquals(4.0, context.call((LoxCallable) context.global("twice"), new Object[] { 2.0 }).value());
+    Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 1]",
+        context.call((LoxCallable) context.global("twice"), new Object[] { null }).error());
+    Assert.assertEquals("Stack overflow.\n[line 1]", context.call((LoxCallable) context.global("deep"), new Object[] { 0.0 }).error());
+
+    context.limit(Budget.steps(1000));
+
+    Assert.assertEquals("Step budget exceeded.", context.call((LoxCallable) context.global("spin"), new Object[] { 0.0 }).error());
+    Assert.assertEquals(4.0, context.call((LoxCallable) context.global("twice"), new Object[] { 2.0 }).value());
+  }
+}
@@ -0,0 +1,135 @@
+package com.hasz.lang.lox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class DaemonTest {
+  private static DataInputStream input(int length) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    new DataOutputStream(bytes).writeInt(length);
+
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  void testStringsRoundTrip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    DaemonProtocol.writeString(new DataOutputStream(bytes), "héllo 🥯");
+
+    Assert.assertEquals("héllo 🥯", DaemonProtocol.readString(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+  }
+
+  void testInvalidLengthsAreRejected() {
+    for (int length : new int[] { -1, DaemonProtocol.MAX_STRING_SIZE + 1, Integer.MAX_VALUE }) {
+      try {
+        DaemonProtocol.readString(input(length));
+        Assert.fail("Expected length " + length + " to be rejected.");
+      } catch (IOException error) {
+        Assert.assertEquals("Invalid string length " + length + ".", error.getMessage());
+      }
+    }
+  }
+
+  void testLongFramesAreSplitWithoutBreakingSurrogates() throws IOException {
+    StringBuilder payload = new StringBuilder();
+
+    while (payload.length() < DaemonProtocol.MAX_STRING_SIZE) {
+      payload.append("x🥯");
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    DaemonProtocol.writeFrame(new DataOutputStream(bytes), DaemonProtocol.STDOUT, payload.toString());
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    StringBuilder received = new StringBuilder();
+    int frames = 0;
+
+    while (input.available() > 0) {
+      Assert.assertEquals(DaemonProtocol.STDOUT, input.readByte());
+
+      String chunk = DaemonProtocol.readString(input);
+
+      Assert.assertTrue(!Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)), "Expected no split surrogate pair.");
+      received.append(chunk);
+      frames++;
+    }
+
+    Assert.assertTrue(frames > 1, "Expected the payload to be split.");
+    Assert.assertEquals(payload.toString(), received.toString());
+  }
+
+  void testDaemonRunsProgramsOverTheSocket() throws Exception {
+    Path directory = Files.createTempDirectory("lox-daemon");
+    Path socket = directory.resolve("d.sock");
+    Thread server = new Thread(() -> {
+      try {
+        new Daemon(socket).serve();
+      } catch (IOException error) {
+        throw new RuntimeException(error);
+      }
+    });
+
+    socket.toFile().deleteOnExit();
+    directory.toFile().deleteOnExit();
+    server.setDaemon(true);
+    server.start();
+
+    Assert.assertEquals("O:1\n2\nX:0", request(socket, "print 1; print 2;"));
+    Assert.assertEquals("O:1\nE:Expected operands to both be numbers or both be strings\n[line 1]\nX:70", request(socket, "print 1; nil + 1;"));
+    Assert.assertEquals("E:[line 1] Error at ';': Expected expression.\nX:65", request(socket, "print ;"));
+  }
+
+  private static SocketChannel connect(Path socket) throws IOException, InterruptedException {
+    for (int attempt = 0; ; attempt++) {
+      SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+
+      try {
+        channel.connect(UnixDomainSocketAddress.of(socket));
+
+        return channel;
+      } catch (IOException error) {
+        channel.close();
+
+        if (attempt == 500) {
+          throw error;
+        }
+
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private static String request(Path socket, String source) throws IOException, InterruptedException {
+    try (SocketChannel channel = connect(socket)) {
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      StringBuilder transcript = new StringBuilder();
+
+      DaemonProtocol.writeString(output, source);
+      output.flush();
+
+      for (;;) {
+        byte type = input.readByte();
+
+        if (type == DaemonProtocol.EXIT) {
+          return transcript.append("X:").append(input.readInt()).toString();
+        }
+
+        transcript.append((char) type).append(':').append(DaemonProtocol.readString(input));
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.hasz.lang.lox;
+
+class FrameTest {
+  void testReleasedFramesComeBackEmpty() {
+    Interpreter interpreter = new Interpreter();
+    Frame frame = interpreter.acquireFrame(3, Frame.NO_CAPTURES, Linkage.EMPTY);
+
+    frame.slots[0] = "stale";
+    frame.numbers[1] = 41;
+    frame.defineCell(2, "captured");
+    interpreter.releaseFrame(frame);
+
+    Frame reused = interpreter.acquireFrame(2, Frame.NO_CAPTURES, Linkage.EMPTY);
+
+    Assert.assertSame(frame, reused);
+    Assert.assertEquals(null, reused.slots[0]);
+    Assert.assertEquals(0.0, reused.numbers[1]);
+    Assert.assertEquals(null, reused.slots[2]);
+  }
+
+  void testPooledFramesGrowForLargerFunctions() {
+    Interpreter interpreter = new Interpreter();
+
+    interpreter.releaseFrame(interpreter.acquireFrame(1, Frame.NO_CAPTURES, Linkage.EMPTY));
+
+    Frame frame = interpreter.acquireFrame(8, Frame.NO_CAPTURES, Linkage.EMPTY);
+
+    Assert.assertTrue(frame.slots.length >= 8 && frame.numbers.length >= 8, "Expected the reused frame to grow.");
+  }
+
+  void testErrorsReleaseFramesOnEveryEngine() {
+    Program setup = Program.compile(
+        "fun fail(n) { var local = n; if (n == 0) { return nil + 1; } return fail(n - 1) + local; }" +
+        "fun fresh(flag) { if (flag) { var x = \"set\"; } return x; }");
+
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        context.execute(setup);
+
+        for (int i = 0; i < 3; i++) {
+          Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 1]",
+              context.execute(Program.compile("fail(20);")).error());
+          Assert.assertEquals("set", context.execute(Program.compile("fresh(true);")).value());
+          Assert.assertEquals(null, context.execute(Program.compile("fresh(false);")).value());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.hasz.lang.lox;
+
+class GlobalsTest {
+  void testProgramsSeeGlobalsDefinedByLaterPrograms() {
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        context.execute(Program.compile("fun total() { return base + extra; }"));
+
+        Assert.assertEquals("Undefined variable 'base'.\n[line 1]", context.execute(Program.compile("total();")).error());
+
+        context.execute(Program.compile("var base = 1; var extra = 2;"));
+        Assert.assertEquals(3.0, context.execute(Program.compile("total();")).value());
+
+        context.execute(Program.compile("var extra = 10;"));
+        Assert.assertEquals(11.0, context.execute(Program.compile("total();")).value());
+      }
+    }
+  }
+
+  void testSharedProgramsLinkToEachContextsGlobals() {
+    Program program = Program.compile("fun get() { return value; } get();");
+
+    for (String engine : ScriptTest.engines()) {
+      try (Context first = ScriptTest.engine(engine); Context second = ScriptTest.engine(engine)) {
+        first.execute(Program.compile("var value = \"first\";"));
+        second.execute(Program.compile("var value = \"second\";"));
+
+        Assert.assertEquals("first", first.execute(program).value());
+        Assert.assertEquals("second", second.execute(program).value());
+        Assert.assertEquals("first", first.execute(program).value());
+      }
+    }
+  }
+
+  void testHostDefinedGlobalsAreVisible() {
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        context.execute(Program.compile("fun scaled() { return factor * 2; }"));
+        context.define("factor", 21.0);
+
+        Assert.assertEquals(42.0, context.execute(Program.compile("scaled();")).value());
+      }
+    }
+  }
+
+  void testCallSitesFollowRedefinitionsFromLaterPrograms() {
+    for (String engine : ScriptTest.engines()) {
+      try (Context context = ScriptTest.engine(engine)) {
+        Program call = Program.compile("run();");
+
+        context.execute(Program.compile("fun target() { return 1; } fun run() { return target(); }"));
+        Assert.assertEquals(1.0, context.execute(call).value());
+
+        context.execute(Program.compile("fun target() { return 2; }"));
+        Assert.assertEquals(2.0, context.execute(call).value());
+
+        context.execute(Program.compile("fun target(a) { return a; }"));
+        Assert.assertEquals("Expected 1 arguments but got 0.\n[line 1]", context.execute(call).error());
+
+        context.define("target", new NativeFunction("target", interpreter -> 3.0));
+        Assert.assertEquals(3.0, context.execute(call).value());
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.hasz.lang.lox;
+
+import java.io.StringWriter;
+import javax.script.Compilable;
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+class LoxScriptEngineTest {
+  public interface Adder {
+    Object add(Object a, Object b);
+  }
+
+  public interface Greeter {
+    Object greet(Object name);
+  }
+
+  private final ScriptEngine engine = new LoxScriptEngineFactory().getScriptEngine();
+
+  void testBindingsFlowInAndOut() throws ScriptException {
+    engine.put("base", 10);
+
+    Assert.assertEquals(13.0, engine.eval("fun add(a, b) { return a + b + base; } var x = add(1, 2); x;"));
+    Assert.assertEquals(13.0, engine.get("x"));
+  }
+
+  void testOnlyScriptGlobalsAreExported() throws ScriptException {
+    engine.eval("var mine = 1;");
+
+    Assert.assertEquals(1.0, engine.get("mine"));
+    Assert.assertEquals(null, engine.get("clock"));
+  }
+
+  void testInvokeFunctionAndMethod() throws Exception {
+    engine.eval("fun add(a, b) { return a + b; }");
+
+    Assert.assertEquals(11.0, ((Invocable) engine).invokeFunction("add", 5, 6));
+
+    Object point = ((Compilable) engine).compile("class P { init(n) { this.n = n; } add(a, b) { return this.n + a + b; } } P(100);").eval();
+
+    Assert.assertEquals(103.0, ((Invocable) engine).invokeMethod(point, "add", 1, 2));
+  }
+
+  void testInterfaceProxy() throws ScriptException {
+    engine.eval("fun add(a, b) { return a + b; }");
+
+    Assert.assertEquals(2.0, ((Invocable) engine).getInterface(Adder.class).add(1.0, 1.0));
+  }
+
+  void testInvokedCallsFlushOutput() throws Exception {
+    StringWriter out = new StringWriter();
+
+    engine.getContext().setWriter(out);
+    engine.eval("fun greet(name) { print \"hi \" + name; }");
+    ((Invocable) engine).invokeFunction("greet", "a");
+
+    Assert.assertEquals("hi a\n", out.toString());
+
+    ((Invocable) engine).getInterface(Greeter.class).greet("b");
+
+    Assert.assertEquals("hi a\nhi b\n", out.toString());
+  }
+
+  void testErrorsBecomeScriptExceptions() throws ScriptException {
+    assertScriptError("nil + 1;", "Expected operands to both be numbers or both be strings\n[line 1]");
+    assertScriptError("var;", "[line 1] Error at ';': Expected a variable name.");
+
+    engine.eval("fun loop(n) { return 1 + loop(n + 1); }");
+
+    try {
+      ((Invocable) engine).invokeFunction("loop", 0);
+      Assert.fail("Expected a ScriptException.");
+    } catch (ScriptException error) {
+      Assert.assertTrue(error.getMessage().startsWith("Stack overflow."), "Unexpected message: " + error.getMessage());
+    } catch (NoSuchMethodException error) {
+      Assert.fail("Expected loop to be defined.");
+    }
+  }
+
+  void testArityIsChecked() throws Exception {
+    engine.eval("fun one(a) { return a; }");
+
+    try {
+      ((Invocable) engine).invokeFunction("one", 1, 2);
+      Assert.fail("Expected a ScriptException.");
+    } catch (ScriptException error) {
+      Assert.assertTrue(error.getMessage().startsWith("Expected 1 arguments but got 2."), "Unexpected message: " + error.getMessage());
+    }
+  }
+
+  private void assertScriptError(String script, String message) {
+    try {
+      engine.eval(script);
+      Assert.fail("Expected a ScriptException for " + script);
+    } catch (ScriptException error) {
+      Assert.assertTrue(error.getMessage().startsWith(message), "Unexpected message: " + error.getMessage());
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.hasz.lang.lox;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MainTest {
+  private static class Run {
+    final int status;
+    final String out;
+    final String err;
+
+    Run(int status, String out, String err) {
+      this.status = status;
+      this.out = out;
+      this.err = err;
+    }
+  }
+
+  private static Path file(String contents) throws IOException {
+    Path path = Files.createTempFile("lox-main", ".lox");
+
+    path.toFile().deleteOnExit();
+    Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+
+    return path;
+  }
+
+  private static Run jlox(String... args) throws IOException, InterruptedException {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path"), Main.class.getName()));
+    Path out = Files.createTempFile("lox-main", ".out");
+    Path err = Files.createTempFile("lox-main", ".err");
+
+    command.addAll(Arrays.asList(args));
+
+    try {
+      Process process = new ProcessBuilder(command)
+          .redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")))
+          .redirectOutput(out.toFile())
+          .redirectError(err.toFile())
+          .start();
+      int status = process.waitFor();
+
+      return new Run(status, Files.readString(out), Files.readString(err));
+    } finally {
+      Files.delete(out);
+      Files.delete(err);
+    }
+  }
+
+  void testRunFileReportsRuntimeErrors() throws Exception {
+    Run run = jlox(file("print 1;\nprint nil + 1;").toString());
+
+    Assert.assertEquals(70, run.status);
+    Assert.assertEquals("1\n", run.out);
+    Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 2]\n", run.err);
+  }
+
+  void testRunFileReportsCompileErrors() throws Exception {
+    Run run = jlox(file("var = 1;").toString());
+
+    Assert.assertEquals(65, run.status);
+    Assert.assertTrue(!run.err.isEmpty(), "Expected the compile error on stderr.");
+  }
+
+  void testRecordErrorsAreReported() throws Exception {
+    Path script = file("fun record(line) { if (line == \"bad\") { return nil + 1; } return \"<\" + line + \">\"; }");
+    Run run = jlox("-p", script.toString(), file("a\nbad\nc\n").toString());
+
+    Assert.assertEquals(70, run.status);
+    Assert.assertEquals("<a>\n", run.out);
+    Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 1]\n", run.err);
+  }
+
+  void testRecordStackOverflowIsReported() throws Exception {
+    Path script = file("fun deep(n) { return deep(n + 1) + 1; } fun record(line) { return deep(0); }");
+    Run run = jlox("-n", script.toString(), file("a\n").toString());
+
+    Assert.assertEquals(70, run.status);
+    Assert.assertTrue(run.err.startsWith("Stack overflow."), "Expected a stack overflow, got: " + run.err);
+  }
+
+  void testRecordsFromSeveralInputs() throws Exception {
+    Path script = file("var seen = \"\"; fun record(line) { seen = seen + line; return seen; }");
+    Run run = jlox("-p", script.toString(), file("a\nb\n").toString(), file("c\n").toString());
+
+    Assert.assertEquals(0, run.status);
+    Assert.assertEquals("", run.err);
+    Assert.assertEquals("a\nab\nabc\n", run.out);
+  }
+}
@@ -0,0 +1,54 @@
+package com.hasz.lang.lox;
+
+class NativeTest {
+  private static Token name(String lexeme) {
+    return new Token(TokenType.IDENTIFIER, lexeme, null, 1);
+  }
+
+  void testFixedArityEntryPointsMatchTheArrayPath() {
+    Interpreter interpreter = new Interpreter();
+    NativeFunction zero = new NativeFunction("zero", self -> "none");
+    NativeFunction one = new NativeFunction("one", (self, a) -> "<" + a + ">");
+    NativeFunction two = new NativeFunction("two", (self, a, b) -> a + "," + b);
+    NativeFunction three = new NativeFunction("three", (self, a, b, c) -> a + "," + b + "," + c);
+
+    Assert.assertEquals(0, zero.arity());
+    Assert.assertEquals(3, three.arity());
+    Assert.assertEquals(zero.call0(interpreter), zero.call(interpreter, LoxCallable.NO_ARGUMENTS));
+    Assert.assertEquals(one.call1(interpreter, "a"), one.call(interpreter, new Object[] { "a" }));
+    Assert.assertEquals(two.call2(interpreter, "a", "b"), two.call(interpreter, new Object[] { "a", "b" }));
+    Assert.assertEquals(three.call3(interpreter, "a", "b", "c"), three.call(interpreter, new Object[] { "a", "b", "c" }));
+  }
+
+  void testArrayBodiesReceiveFixedArityCalls() {
+    Interpreter interpreter = new Interpreter();
+    NativeFunction count = new NativeFunction("count", 2, (self, arguments) -> arguments[0] + "+" + arguments[1]);
+
+    Assert.assertEquals("a+b", count.call2(interpreter, "a", "b"));
+    Assert.assertEquals("a+b", count.call(interpreter, new Object[] { "a", "b" }));
+  }
+
+  void testBoundMethodsAreCachedPerInstance() {
+    Interpreter interpreter = new Interpreter();
+    LoxList first = (LoxList) LoxList.CLASS.call0(interpreter);
+    LoxList second = (LoxList) LoxList.CLASS.call(interpreter, LoxCallable.NO_ARGUMENTS);
+    Object push = first.get(name("push"));
+
+    Assert.assertSame(push, first.get(name("push")));
+    Assert.assertTrue(push != second.get(name("push")), "Expected each instance to bind its own methods.");
+
+    ((NativeFunction) push).call1(interpreter, "item");
+
+    Assert.assertEquals(1.0, ((NativeFunction) first.get(name("length"))).call0(interpreter));
+    Assert.assertEquals(0.0, ((NativeFunction) second.get(name("length"))).call(interpreter, LoxCallable.NO_ARGUMENTS));
+  }
+
+  void testUnknownMethodsAreReported() {
+    try {
+      ((LoxList) LoxList.CLASS.call0(new Interpreter())).get(name("missing"));
+      Assert.fail("Expected an undefined property error.");
+    } catch (RuntimeError error) {
+      Assert.assertEquals("Undefined property 'missing'.", error.getMessage());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.hasz.lang.lox;
+
+import java.io.StringWriter;
+
+class OutputSinkTest {
+  private static class RecordingWriter extends StringWriter {
+    int flushes = 0;
+
+    @Override
+    public void flush() {
+      flushes++;
+      super.flush();
+    }
+  }
+
+  void testNewlinePolicyFlushesEveryLine() {
+    RecordingWriter writer = new RecordingWriter();
+    OutputSink sink = new OutputSink(writer, FlushPolicy.NEWLINE, 1024);
+
+    sink.println("a");
+    Assert.assertEquals("a\n", writer.toString());
+    sink.println(1.0);
+    Assert.assertEquals("a\n1\n", writer.toString());
+    Assert.assertEquals(2, writer.flushes);
+  }
+
+  void testThresholdPolicyWritesAndFlushesOnceFull() {
+    RecordingWriter writer = new RecordingWriter();
+    OutputSink sink = new OutputSink(writer, FlushPolicy.THRESHOLD, 6);
+
+    sink.println("ab");
+    Assert.assertEquals("", writer.toString());
+    sink.println("cd");
+    Assert.assertEquals("ab\ncd\n", writer.toString());
+    Assert.assertEquals(1, writer.flushes);
+  }
+
+  void testExitPolicyOnlyFlushesOnRequest() {
+    RecordingWriter writer = new RecordingWriter();
+    OutputSink sink = new OutputSink(writer, FlushPolicy.EXIT, 6);
+
+    sink.println("ab");
+    sink.println("cd");
+    Assert.assertEquals("ab\ncd\n", writer.toString());
+    Assert.assertEquals(0, writer.flushes);
+
+    sink.println(true);
+    Assert.assertEquals("ab\ncd\n", writer.toString());
+    sink.flush();
+    Assert.assertEquals("ab\ncd\ntrue\n", writer.toString());
+    Assert.assertEquals(1, writer.flushes);
+  }
+
+  void testContextFlushesBufferedOutputAfterEachRun() {
+    RecordingWriter writer = new RecordingWriter();
+    Context context = new Context();
+
+    context.redirect(writer, FlushPolicy.THRESHOLD, 1 << 16);
+    context.execute(Program.compile("print \"before\"; nil + 1;"));
+
+    Assert.assertEquals("before\n", writer.toString());
+  }
+}
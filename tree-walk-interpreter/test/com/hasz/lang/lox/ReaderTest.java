@@ -0,0 +1,82 @@
+package com.hasz.lang.lox;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class ReaderTest {
+  private static Path file(String contents) throws IOException {
+    Path path = Files.createTempFile("lox-reader", ".txt");
+
+    path.toFile().deleteOnExit();
+    Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+
+    return path;
+  }
+
+  private static Object run(Context context, String source) {
+    Result result = context.execute(Program.compile(source));
+
+    Assert.assertEquals(null, result.error());
+
+    return result.value();
+  }
+
+  void testLinesReadsEveryLineThenNil() throws IOException {
+    Path path = file("one\ntwo\nthree\n");
+    Context context = new Context();
+
+    Object value = run(context,
+        "var reader = lines(\"" + path + "\"); var all = \"\"; var line = reader.next();" +
+        "while (line != nil) { all = all + line + \";\"; line = reader.next(); } all;");
+
+    Assert.assertEquals("one;two;three;", value);
+    Assert.assertEquals(null, run(context, "reader.next();"));
+  }
+
+  void testChunkReadsFixedSizes() throws IOException {
+    Path path = file("abcdefg");
+    Context context = new Context();
+
+    Assert.assertEquals("abc", run(context, "var reader = open(\"" + path + "\", 2); reader.chunk(3);"));
+    Assert.assertEquals("def", run(context, "reader.chunk(3);"));
+    Assert.assertEquals("g", run(context, "reader.chunk(3);"));
+    Assert.assertEquals(null, run(context, "reader.chunk(3);"));
+  }
+
+  void testOpenReportsBadArguments() throws IOException {
+    Path path = file("");
+    Context context = new Context();
+
+    Assert.assertEquals("Expected buffer size to be positive.\n[line 1]",
+        context.execute(Program.compile("open(\"" + path + "\", 0);")).error());
+    Assert.assertEquals("Could not open '" + path + ".missing'.\n[line 1]",
+        context.execute(Program.compile("lines(\"" + path + ".missing\");")).error());
+    Assert.assertEquals("Expected chunk size to be positive.\n[line 1]",
+        context.execute(Program.compile("open(\"" + path + "\", 16).chunk(0);")).error());
+  }
+
+  void testClosingTheContextClosesOpenReaders() throws IOException {
+    Path path = file("one\ntwo\n");
+    Context context = new Context();
+    LoxReader reader;
+
+    try {
+      run(context, "var reader = lines(\"" + path + "\"); reader.next();");
+      reader = (LoxReader) context.global("reader");
+      Assert.assertTrue(!reader.isClosed(), "Expected the reader to stay open while the context lives.");
+    } finally {
+      context.close();
+    }
+
+    Assert.assertTrue(reader.isClosed(), "Expected the reader to be closed with its context.");
+  }
+
+  void testEachContextHasItsOwnStdin() {
+    try (Context first = new Context(); Context second = new Context()) {
+      Assert.assertSame(first.stdin(), first.stdin());
+      Assert.assertTrue(first.stdin() != second.stdin(), "Expected contexts to have separate stdin readers.");
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.hasz.lang.lox;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ScriptTest {
+  private static final Pattern EXPECTED_OUTPUT = Pattern.compile("// expect: ?(.*)");
+  private static final Pattern EXPECTED_RUNTIME_ERROR = Pattern.compile("// expect runtime error: (.+)");
+  private static final Pattern EXPECTED_COMPILE_ERROR = Pattern.compile("// expect compile error: (.+)");
+  private static final Pattern ENGINE_LIST = Pattern.compile("// engines: (.+)");
+  private static final Map<String, Supplier<Context>> ENGINES = new LinkedHashMap<>();
+
+  static Path root;
+
+  static {
+    ENGINES.put("tree-walk", Context::new);
+    ENGINES.put("stackless", () -> Context.stackless(StacklessInterpreter.DEFAULT_MAX_DEPTH));
+    ENGINES.put("compiled", Context::compiled);
+    ENGINES.put("tiered", () -> Context.tiered(2));
+    ENGINES.put("bytecode", Context::bytecode);
+  }
+
+  static Context engine(String name) {
+    return ENGINES.get(name).get();
+  }
+
+  static List<String> engines() {
+    return new ArrayList<>(ENGINES.keySet());
+  }
+
+  void testScripts() throws IOException {
+    List<Path> scripts;
+
+    try (Stream<Path> paths = Files.walk(root)) {
+      scripts = paths.filter(path -> path.toString().endsWith(".lox")).sorted().collect(Collectors.toList());
+    }
+
+    Assert.assertTrue(!scripts.isEmpty(), "No scripts found under " + root + ".");
+
+    List<String> failures = new ArrayList<>();
+
+    for (Path script : scripts) {
+      failures.addAll(run(script));
+    }
+
+    if (!failures.isEmpty()) {
+      Assert.fail(failures.size() + " script failures:\n  " + String.join("\n  ", failures));
+    }
+  }
+
+  private static List<String> run(Path script) throws IOException {
+    String source = new String(Files.readAllBytes(script), StandardCharsets.UTF_8);
+    List<String> output = new ArrayList<>();
+    List<String> compileErrors = new ArrayList<>();
+    String runtimeError = null;
+    List<String> engines = engines();
+
+    for (String line : source.split("\n")) {
+      Matcher matcher;
+
+      if ((matcher = EXPECTED_OUTPUT.matcher(line)).find()) {
+        output.add(matcher.group(1));
+      } else if ((matcher = EXPECTED_RUNTIME_ERROR.matcher(line)).find()) {
+        runtimeError = matcher.group(1);
+      } else if ((matcher = EXPECTED_COMPILE_ERROR.matcher(line)).find()) {
+        compileErrors.add(matcher.group(1));
+      } else if ((matcher = ENGINE_LIST.matcher(line)).find()) {
+        engines = Arrays.asList(matcher.group(1).trim().split(" +"));
+      }
+    }
+
+    Path name = root.relativize(script);
+    Program program = Program.compile(source);
+    List<String> failures = new ArrayList<>();
+
+    if (!program.errors().equals(compileErrors)) {
+      failures.add(name + ": expected compile errors " + compileErrors + " but got " + program.errors() + ".");
+
+      return failures;
+    }
+
+    if (program.hasErrors()) {
+      return failures;
+    }
+
+    for (String engine : engines) {
+      StringWriter writer = new StringWriter();
+      Result result;
+
+      try (Context context = engine(engine)) {
+        context.redirect(writer, FlushPolicy.EXIT);
+        result = context.execute(program);
+      }
+
+      String printed = writer.toString();
+      List<String> actual = printed.isEmpty() ? new ArrayList<>() : Arrays.asList(printed.split("\n", -1));
+
+      if (!actual.isEmpty() && actual.get(actual.size() - 1).isEmpty()) {
+        actual = actual.subList(0, actual.size() - 1);
+      }
+
+      if (!actual.equals(output)) {
+        failures.add(name + " [" + engine + "]: expected output " + output + " but got " + actual + ".");
+      }
+
+      String error = result.hasError() ? result.error().split("\n")[0] : null;
+
+      if (runtimeError == null ? error != null : !runtimeError.equals(error)) {
+        failures.add(name + " [" + engine + "]: expected runtime error <" + runtimeError + "> but got <" + error + ">.");
+      }
+    }
+
+    return failures;
+  }
+}
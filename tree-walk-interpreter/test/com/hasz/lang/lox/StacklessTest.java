@@ -0,0 +1,20 @@
+package com.hasz.lang.lox;
+
+class StacklessTest {
+  void testMaxDepthIsEnforced() {
+    Program program = Program.compile("fun deep(n) { if (n == 0) { return 0; } return 1 + deep(n - 1); } deep(2000);");
+    Result result = Context.stackless(1000).execute(program);
+
+    Assert.assertEquals("Stack overflow.\n[line 1]", result.error());
+  }
+
+  void testDepthIsRestoredAfterAnError() {
+    Context context = Context.stackless(1000);
+    Program deep = Program.compile("fun deep(n) { if (n == 0) { return 0; } return 1 + deep(n - 1); }");
+
+    context.execute(deep);
+
+    Assert.assertTrue(context.execute(Program.compile("deep(5000);")).hasError(), "Expected the first run to overflow.");
+    Assert.assertEquals(900.0, context.execute(Program.compile("deep(900);")).value());
+  }
+}
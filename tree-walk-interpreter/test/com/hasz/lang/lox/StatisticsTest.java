@@ -0,0 +1,34 @@
+package com.hasz.lang.lox;
+
+class StatisticsTest {
+  void testRegexCountersArePerContext() {
+    Context busy = new Context();
+    Context idle = new Context();
+
+    busy.execute(Program.compile("for (var i = 0; i < 10; i = i + 1) { match(\"stats[0-9]+\", \"stats1\"); }"));
+
+    LoxMap busyStats = (LoxMap) busy.execute(Program.compile("stats();")).value();
+    LoxMap idleStats = (LoxMap) idle.execute(Program.compile("stats();")).value();
+
+    Assert.assertEquals(10.0, (double) busyStats.get("regex.hits") + (double) busyStats.get("regex.misses"));
+    Assert.assertEquals(0.0, idleStats.get("regex.hits"));
+    Assert.assertEquals(0.0, idleStats.get("regex.misses"));
+  }
+
+  void testTypeCountersCoverOnlyProgramsRunInTheContext() {
+    for (String engine : ScriptTest.engines()) {
+      Context busy = ScriptTest.engine(engine);
+      Context idle = ScriptTest.engine(engine);
+
+      busy.execute(Program.compile("fun f() { var a = 1; var b = 2; return a + b; } f();"));
+
+      LoxMap busyStats = (LoxMap) busy.execute(Program.compile("stats();")).value();
+      LoxMap idleStats = (LoxMap) idle.execute(Program.compile("stats();")).value();
+
+      Assert.assertEquals(2.0, busyStats.get("types.locals"));
+      Assert.assertEquals(2.0, busyStats.get("types.unboxed"));
+      Assert.assertEquals(1.0, busyStats.get("types.proven"));
+      Assert.assertEquals(0.0, idleStats.get("types.locals"));
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.hasz.lang.lox;
+
+class StringTableTest {
+  void testInternReturnsCanonicalInstance() {
+    String first = StringTable.intern(new String("interned"));
+    String second = StringTable.intern(new String("interned"));
+
+    Assert.assertSame(first, second);
+  }
+
+  void testLiteralsShareOneInstance() {
+    Program program = Program.compile("var a = \"same\"; var b = \"same\";");
+    Context context = new Context();
+
+    context.execute(program);
+
+    Assert.assertSame(context.global("a"), context.global("b"));
+  }
+}
@@ -0,0 +1,65 @@
+package com.hasz.lang.lox;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class TestRunner {
+  private static final Class<?>[] SUITES = {
+    ScriptTest.class,
+    BudgetTest.class,
+    ContextTest.class,
+    DaemonTest.class,
+    FrameTest.class,
+    GlobalsTest.class,
+    LoxScriptEngineTest.class,
+    MainTest.class,
+    NativeTest.class,
+    OutputSinkTest.class,
+    ReaderTest.class,
+    StacklessTest.class,
+    StatisticsTest.class,
+    StringTableTest.class,
+    TieredTest.class,
+    TypeInferenceTest.class,
+    VirtualMachineTest.class,
+  };
+
+  public static void main(String[] args) throws ReflectiveOperationException {
+    ScriptTest.root = Paths.get(args.length > 0 ? args[0] : "test/lox");
+
+    List<String> failures = new ArrayList<>();
+    int passed = 0;
+
+    for (Class<?> suite : SUITES) {
+      Method[] methods = suite.getDeclaredMethods();
+
+      Arrays.sort(methods, Comparator.comparing(Method::getName));
+
+      for (Method method : methods) {
+        if (!method.getName().startsWith("test") || method.getParameterCount() != 0) {
+          continue;
+        }
+
+        try {
+          method.setAccessible(true);
+          method.invoke(suite.getDeclaredConstructor().newInstance());
+          passed++;
+        } catch (InvocationTargetException error) {
+          failures.add(suite.getSimpleName() + "." + method.getName() + ": " + error.getCause());
+        }
+      }
+    }
+
+    for (String failure : failures) {
+      System.out.println("FAIL " + failure);
+    }
+
+    System.out.println(passed + " passed, " + failures.size() + " failed.");
+    System.exit(failures.isEmpty() ? 0 : 1);
+  }
+}
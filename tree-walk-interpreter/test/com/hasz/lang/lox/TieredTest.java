@@ -0,0 +1,63 @@
+package com.hasz.lang.lox;
+
+class TieredTest {
+  void testHotFunctionsArePromoted() {
+    Context context = Context.tiered(5);
+
+    context.execute(Program.compile("fun square(n) { return n * n; } fun cold() { return 0; } cold();"));
+
+    LoxFunction square = (LoxFunction) context.global("square");
+
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals((double) i * i, context.execute(Program.compile("square(" + i + ");")).value());
+      Assert.assertEquals(i >= 4, square.profile.code != null);
+    }
+
+    Assert.assertTrue(((LoxFunction) context.global("cold")).profile.code == null, "Expected a cold function to stay interpreted.");
+  }
+
+  void testPromotedFunctionsKeepTheirClosures() {
+    Context context = Context.tiered(3);
+
+    context.execute(Program.compile(
+        "fun counter() { var n = 0; fun next() { n = n + 1; return n; } return next; }" +
+        "var a = counter(); var b = counter();"));
+
+    for (int i = 1; i <= 6; i++) {
+      Assert.assertEquals((double) i, context.execute(Program.compile("a();")).value());
+    }
+
+    Assert.assertEquals(1.0, context.execute(Program.compile("b();")).value());
+  }
+
+  void testHotLoopsAreReplacedMidRun() {
+    Context context = Context.tiered(10);
+
+    Assert.assertEquals(4950.0, context.execute(Program.compile(
+        "var s = 0; for (var i = 0; i < 100; i = i + 1) { s = s + i; } s;")).value());
+    Assert.assertEquals(100.0, context.execute(Program.compile(
+        "var n = 0; while (n < 100) { n = n + 1; } n;")).value());
+    Assert.assertEquals(4950.0, context.execute(Program.compile(
+        "fun sum(limit) { var s = 0; var i = 0; while (i < limit) { s = s + i; i = i + 1; } return s; } sum(100);")).value());
+  }
+
+  void testLoopClosuresSurviveReplacement() {
+    Context context = Context.tiered(4);
+
+    Assert.assertEquals(930.0, context.execute(Program.compile(
+        "var fs = List();" +
+        "for (var i = 0; i < 10; i = i + 1) { { var j = i; fun f() { return j; } fs.push(f); } }" +
+        "fs.get(0)() + fs.get(3)() * 10 + fs.get(9)() * 100;")).value());
+  }
+
+  void testPromotedCodeReportsTheSameErrors() {
+    Context context = Context.tiered(2);
+
+    context.execute(Program.compile("fun add(a, b) {\n  return a + b;\n}"));
+
+    for (int i = 0; i < 4; i++) {
+      Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 2]",
+          context.execute(Program.compile("add(1, nil);")).error());
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.hasz.lang.lox;
+
+class TypeInferenceTest {
+  private static String summary(String source) {
+    return Program.compile(source).typeReport().get(0);
+  }
+
+  void testDefinitelyAssignedNumbersAreUnboxed() {
+    Assert.assertEquals("3 of 3 checked operations proven, 2 of 2 locals unboxed.",
+        summary("fun f(n) { var total = 0; for (var i = 0; i < 10; i = i + 1) { total = total + i; } return total; }"));
+  }
+
+  void testLocalsThatMayBeReadUnassignedStayBoxed() {
+    Assert.assertEquals("0 of 0 checked operations proven, 0 of 1 locals unboxed.",
+        summary("fun f(flag) { if (flag) { var x = 41; } return x; }"));
+    Assert.assertEquals("1 of 2 checked operations proven, 1 of 2 locals unboxed.",
+        summary("fun f(n) { var i = 0; while (i < n) { if (i == 0) { var z = 1; } i = i + 1; } return z; }"));
+  }
+
+  void testUnprovenOperationsAreListed() {
+    Program program = Program.compile("fun f(a) {\n  return a + 1;\n}");
+
+    Assert.assertEquals("[line 2] Unproven operands for '+'.", program.typeReport().get(1));
+  }
+}
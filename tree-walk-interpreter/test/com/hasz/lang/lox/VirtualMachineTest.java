@@ -0,0 +1,63 @@
+package com.hasz.lang.lox;
+
+class VirtualMachineTest {
+  private static Result run(Context context, String source) {
+    return context.execute(Program.compile(source));
+  }
+
+  void testFrameLimitIsEnforced() {
+    Context context = new Context(new VirtualMachine(64));
+
+    Assert.assertEquals("Stack overflow.\n[line 1]", run(context, "fun deep(n) { if (n == 0) { return 0; } return deep(n - 1) + 1; } deep(100);").error());
+    Assert.assertEquals(50.0, run(context, "deep(50);").value());
+  }
+
+  void testStateIsResetAfterAnError() {
+    Context context = Context.bytecode();
+
+    run(context, "var total = 0; fun add(n) { total = total + n; return total; }");
+
+    Assert.assertEquals("Expected operands to both be numbers or both be strings\n[line 1]", run(context, "add(1); add(nil);").error());
+    Assert.assertEquals(3.0, run(context, "add(2);").value());
+  }
+
+  void testNativesCanCallBackIntoTheMachine() {
+    Context context = Context.bytecode();
+
+    run(context,
+        "var xs = List(); xs.push(1); xs.push(2); xs.push(3);" +
+        "fun double(y) { return y * 2; }" +
+        "fun doubled(x) { var ys = List(); ys.push(x); ys.push(x); return ys.map(double); }" +
+        "fun broken(x) { return x / nil; }" +
+        "fun add(a, b) { return a + b; }");
+
+    Assert.assertEquals("[[2, 2], [4, 4], [6, 6]]", run(context, "xs.map(doubled);").toString());
+    Assert.assertEquals("Expected operands to be numbers.\n[line 1]", run(context, "xs.map(broken);").error());
+    Assert.assertEquals(6.0, run(context, "xs.reduce(add, 0);").value());
+  }
+
+  void testStackGrowsForWideCallsAndDeepExpressions() {
+    Context context = Context.bytecode();
+    StringBuilder nested = new StringBuilder("0");
+
+    for (int i = 0; i < 200; i++) {
+      nested.insert(0, "(1 + ").append(")");
+    }
+
+    Assert.assertEquals(200.0, run(context, nested + ";").value());
+    Assert.assertEquals(5000.0, run(context,
+        "fun sum(n, acc) { if (n == 0) { return acc; } var a = 1; var b = 0; return sum(n - 1, acc + a + b); } sum(5000, 0);").value());
+  }
+
+  void testUpvaluesOutliveTheirFrames() {
+    Context context = Context.bytecode();
+
+    run(context,
+        "fun counter() { var n = 0; fun inc() { n = n + 1; return n; } fun get() { return n; } var both = List(); both.push(inc); both.push(get); return both; }" +
+        "var c = counter(); var inc = c.get(0); var get = c.get(1);");
+
+    run(context, "inc(); inc();");
+
+    Assert.assertEquals(2.0, run(context, "get();").value());
+  }
+}